@@ -0,0 +1,69 @@
+package com.moneytracker.benchmark;
+
+import com.moneytracker.entity.Person;
+import com.moneytracker.entity.Transaction;
+import com.moneytracker.entity.TransactionType;
+import com.moneytracker.util.JwtUtil;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Objects the benchmarks share, built without a Spring context
+class Fixtures {
+    
+    // Same key length and lifetime as application.properties
+    static final String JWT_SECRET = "mySecretKey123456789012345678901234567890";
+    static final long JWT_EXPIRATION = 86400000L;
+    
+    // Meters are recorded as in the application, into a registry nobody reads
+    static final MeterRegistry METER_REGISTRY = new SimpleMeterRegistry();
+    
+    private Fixtures() {
+    }
+    
+    // A JwtUtil as Spring would configure it, with the given verified-token cache size
+    static JwtUtil jwtUtil(int cacheMaxSize) {
+        JwtUtil jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secret", JWT_SECRET);
+        ReflectionTestUtils.setField(jwtUtil, "expiration", JWT_EXPIRATION);
+        ReflectionTestUtils.setField(jwtUtil, "cacheMaxSize", cacheMaxSize);
+        ReflectionTestUtils.setField(jwtUtil, "meterRegistry", METER_REGISTRY);
+        jwtUtil.init();
+        return jwtUtil;
+    }
+    
+    // Transactions with mixed types, amounts and descriptions, all for the given person.
+    // The seed is fixed so every run serializes and sums the same data.
+    static List<Transaction> transactions(Person person, int count) {
+        Random random = new Random(42);
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        List<Transaction> transactions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            TransactionType type = random.nextInt(3) == 0 ? TransactionType.RECEIVE : TransactionType.SEND;
+            BigDecimal amount = BigDecimal.valueOf(1 + random.nextInt(100000), 2);
+            Transaction transaction = new Transaction(amount, "Transaction " + i, type, null, person);
+            transaction.setId((long) i + 1);
+            transaction.setDate(start.plusMinutes(i));
+            transactions.add(transaction);
+        }
+        return transactions;
+    }
+    
+    // People with ids and balances, as /people/all returns them
+    static List<Person> people(int count) {
+        List<Person> people = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Person person = new Person("Person " + i, null);
+            person.setId((long) i + 1);
+            person.setBalance(BigDecimal.valueOf(i * 137L - 5000, 2));
+            people.add(person);
+        }
+        return people;
+    }
+}
@@ -0,0 +1,62 @@
+package com.moneytracker.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.moneytracker.entity.Person;
+import com.moneytracker.entity.Transaction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Response bodies of /transactions/all and /people/all, written with an ObjectMapper configured
+// the way Spring Boot configures the one behind the controllers
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonSerializationBenchmark {
+    
+    @Param({"100", "10000"})
+    private int size;
+    
+    private ObjectWriter transactionsWriter;
+    private ObjectWriter peopleWriter;
+    private List<Transaction> transactions;
+    private List<Person> people;
+    
+    @Setup
+    public void setup() {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        transactionsWriter = objectMapper.writerFor(objectMapper.getTypeFactory()
+                .constructCollectionType(List.class, Transaction.class));
+        peopleWriter = objectMapper.writerFor(objectMapper.getTypeFactory()
+                .constructCollectionType(List.class, Person.class));
+        
+        people = Fixtures.people(size);
+        transactions = Fixtures.transactions(people.get(0), size);
+    }
+    
+    @Benchmark
+    public byte[] transactions() throws Exception {
+        return transactionsWriter.writeValueAsBytes(transactions);
+    }
+    
+    @Benchmark
+    public byte[] people() throws Exception {
+        return peopleWriter.writeValueAsBytes(people);
+    }
+}
@@ -0,0 +1,65 @@
+package com.moneytracker.benchmark;
+
+import com.moneytracker.util.JwtUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Token issue (login) and verification (every authenticated request), with the verified-token
+// cache hit and missed
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtBenchmark {
+    
+    // Distinct tokens cycled through by the uncached benchmark; far more than its cache holds
+    private static final int TOKEN_COUNT = 1024;
+    
+    private JwtUtil jwtUtil;
+    private JwtUtil uncachedJwtUtil;
+    private String token;
+    private String[] tokens;
+    private int next;
+    
+    @Setup
+    public void setup() {
+        jwtUtil = Fixtures.jwtUtil(10000);
+        // A one-entry cache is cleared by every miss, so each call below verifies the signature
+        uncachedJwtUtil = Fixtures.jwtUtil(1);
+        
+        token = jwtUtil.generateToken("benchmark", 1L);
+        jwtUtil.validateToken(token, "benchmark");
+        tokens = new String[TOKEN_COUNT];
+        for (int i = 0; i < TOKEN_COUNT; i++) {
+            tokens[i] = uncachedJwtUtil.generateToken("benchmark", (long) i);
+        }
+    }
+    
+    @Benchmark
+    public String generateToken() {
+        return jwtUtil.generateToken("benchmark", 1L);
+    }
+    
+    @Benchmark
+    public Boolean validateTokenCached() {
+        return jwtUtil.validateToken(token, "benchmark");
+    }
+    
+    @Benchmark
+    public Boolean validateTokenUncached() {
+        next = (next + 1) % TOKEN_COUNT;
+        return uncachedJwtUtil.validateToken(tokens[next], "benchmark");
+    }
+}
@@ -0,0 +1,67 @@
+package com.moneytracker.benchmark;
+
+import com.moneytracker.entity.Person;
+import com.moneytracker.entity.Transaction;
+import com.moneytracker.entity.TransactionType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// The in-memory balance methods of Person over a history of the given size: adding one
+// transaction to it, and recomputing the balance from all of it
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Thread)
+public class PersonBalanceBenchmark {
+    
+    @Param({"1000", "100000", "1000000"})
+    private int size;
+    
+    private List<Transaction> history;
+    private Person person;
+    private Transaction added;
+    
+    @Setup(Level.Trial)
+    public void createHistory() {
+        Person owner = new Person("Benchmark", null);
+        history = Fixtures.transactions(owner, size);
+        added = new Transaction(new BigDecimal("12.34"), "Added", TransactionType.SEND, null, null);
+    }
+    
+    // A fresh person per iteration, so addTransaction does not grow the list without bound
+    @Setup(Level.Iteration)
+    public void createPerson() {
+        person = new Person("Benchmark", null);
+        person.setTransactions(new ArrayList<>(history));
+        person.recalculateBalance();
+    }
+    
+    @Benchmark
+    public BigDecimal addTransaction() {
+        person.addTransaction(added);
+        return person.getBalance();
+    }
+    
+    @Benchmark
+    public BigDecimal recalculateBalance() {
+        person.recalculateBalance();
+        return person.getBalance();
+    }
+}
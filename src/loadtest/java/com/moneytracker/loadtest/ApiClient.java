@@ -0,0 +1,92 @@
+package com.moneytracker.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Sends one workload request as a seeded user, over the JDK HTTP client
+class ApiClient {
+    
+    // A request chosen before the clock starts, so picking it is not part of its latency
+    record Call(Operation operation, Dataset.Account account, Long transactionId) {
+    }
+    
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(60);
+    
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final String baseUrl;
+    // Names of people added during the run; unique across all users and threads
+    private final AtomicLong addedPeople = new AtomicLong();
+    
+    ApiClient(String baseUrl) {
+        this.baseUrl = baseUrl;
+    }
+    
+    // Pick the account and arguments of a call. A reversal takes one of the account's
+    // transactions; with none left it becomes a send.
+    Call prepare(Operation operation, Dataset dataset, Random random) {
+        Dataset.Account account = dataset.accounts.get(random.nextInt(dataset.accounts.size()));
+        if (operation == Operation.REVERSE) {
+            Long id = account.transactionIds.pollLast();
+            return id == null ? new Call(Operation.SEND, account, null) : new Call(operation, account, id);
+        }
+        return new Call(operation, account, null);
+    }
+    
+    // Send the call and return whether it succeeded (2xx)
+    boolean execute(Call call, Random random) throws Exception {
+        Dataset.Account account = call.account();
+        HttpRequest.Builder request = switch (call.operation()) {
+            case LOGIN -> HttpRequest.newBuilder(uri("/auth/login"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(
+                            Map.of("username", account.username, "password", Dataset.PASSWORD))));
+            case ADD -> authorized(account, "/people/add?name=" + encode("Added " + addedPeople.incrementAndGet()))
+                    .POST(HttpRequest.BodyPublishers.noBody());
+            case SEND -> authorized(account, "/people/send?name="
+                    + encode(account.people.get(random.nextInt(account.people.size())))
+                    + "&amount=" + (1 + random.nextInt(1000)) + ".00&description=" + encode("Load test"))
+                    .POST(HttpRequest.BodyPublishers.noBody());
+            case ALL -> authorized(account, "/transactions/all").GET();
+            case REVERSE -> authorized(account, "/transactions/" + call.transactionId() + "/reverse").DELETE();
+        };
+        
+        HttpResponse<String> response = client.send(request.timeout(REQUEST_TIMEOUT).build(),
+                HttpResponse.BodyHandlers.ofString());
+        boolean ok = response.statusCode() / 100 == 2;
+        // New transactions can be reversed later in the run
+        if (ok && call.operation() == Operation.SEND) {
+            JsonNode id = objectMapper.readTree(response.body()).get("id");
+            if (id != null) {
+                account.transactionIds.add(id.asLong());
+            }
+        }
+        return ok;
+    }
+    
+    private HttpRequest.Builder authorized(Dataset.Account account, String path) {
+        return HttpRequest.newBuilder(uri(path)).header("Authorization", "Bearer " + account.token);
+    }
+    
+    private URI uri(String path) {
+        return URI.create(baseUrl + path);
+    }
+    
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
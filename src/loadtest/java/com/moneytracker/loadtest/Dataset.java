@@ -0,0 +1,94 @@
+package com.moneytracker.loadtest;
+
+import com.moneytracker.entity.Transaction;
+import com.moneytracker.entity.User;
+import com.moneytracker.service.PersonService;
+import com.moneytracker.service.TransactionService;
+import com.moneytracker.service.UserService;
+import com.moneytracker.util.JwtUtil;
+import org.springframework.context.ApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Users, people and transactions created through the services before the run, and what the
+// workload needs to act as those users
+class Dataset {
+    
+    static final String PASSWORD = "load-test-password";
+    
+    // One seeded user: its token, its people and the ids of its transactions that can still
+    // be reversed (seeded ones plus those sent during the run)
+    static class Account {
+        final String username;
+        final String token;
+        final List<String> people;
+        final ConcurrentLinkedDeque<Long> transactionIds = new ConcurrentLinkedDeque<>();
+        
+        Account(String username, String token, List<String> people) {
+            this.username = username;
+            this.token = token;
+            this.people = people;
+        }
+    }
+    
+    final List<Account> accounts;
+    
+    private Dataset(List<Account> accounts) {
+        this.accounts = accounts;
+    }
+    
+    // Seed the users in parallel; each user's writes stay on one thread, so they never
+    // contend for the same ledger rows. The seed is fixed, so every run gets the same data.
+    static Dataset seed(ApplicationContext context, LoadTestOptions options) throws Exception {
+        UserService userService = context.getBean(UserService.class);
+        PersonService personService = context.getBean(PersonService.class);
+        TransactionService transactionService = context.getBean(TransactionService.class);
+        JwtUtil jwtUtil = context.getBean(JwtUtil.class);
+        
+        ExecutorService pool = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        try {
+            List<Future<Account>> futures = new ArrayList<>();
+            for (int u = 0; u < options.users; u++) {
+                int index = u;
+                futures.add(pool.submit(() -> {
+                    String username = "load-user-" + index;
+                    User user = userService.registerUser(username, username + "@load.test", PASSWORD);
+                    
+                    List<String> people = new ArrayList<>();
+                    for (int p = 0; p < options.people; p++) {
+                        String name = "Person " + p;
+                        personService.addPerson(name, user);
+                        people.add(name);
+                    }
+                    
+                    Account account = new Account(username, jwtUtil.generateToken(username, user.getId()), people);
+                    Random random = new Random(index);
+                    for (int t = 0; t < options.transactions; t++) {
+                        String name = people.get(random.nextInt(people.size()));
+                        BigDecimal amount = BigDecimal.valueOf(100 + random.nextInt(100000), 2);
+                        Transaction transaction = random.nextInt(3) == 0
+                                ? transactionService.receiveMoney(name, amount, "Seeded " + t, user)
+                                : transactionService.sendMoney(name, amount, "Seeded " + t, user);
+                        account.transactionIds.add(transaction.getId());
+                    }
+                    return account;
+                }));
+            }
+            
+            List<Account> accounts = new ArrayList<>();
+            for (Future<Account> future : futures) {
+                accounts.add(future.get());
+            }
+            return new Dataset(accounts);
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
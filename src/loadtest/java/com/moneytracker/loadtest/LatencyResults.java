@@ -0,0 +1,84 @@
+package com.moneytracker.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Latency histogram (microseconds) and error count per operation, recorded from many threads
+class LatencyResults {
+    
+    // Anything slower than an hour is off the chart; three significant digits
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.HOURS.toMicros(1);
+    
+    private final Map<Operation, Histogram> histograms = new EnumMap<>(Operation.class);
+    private final Map<Operation, LongAdder> errors = new EnumMap<>(Operation.class);
+    
+    LatencyResults() {
+        for (Operation operation : Operation.values()) {
+            histograms.put(operation, new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3));
+            errors.put(operation, new LongAdder());
+        }
+    }
+    
+    void record(Operation operation, long latencyNanos, boolean ok) {
+        histograms.get(operation).recordValue(
+                Math.min(TimeUnit.NANOSECONDS.toMicros(latencyNanos), HIGHEST_TRACKABLE_MICROS));
+        if (!ok) {
+            errors.get(operation).increment();
+        }
+    }
+    
+    // One line per operation that ran: count, errors, throughput and latency percentiles in ms
+    void print(PrintStream out, double seconds) {
+        out.printf("%-34s %9s %7s %9s %9s %9s %9s %9s%n",
+                "endpoint", "count", "errors", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        for (Map.Entry<Operation, Histogram> entry : histograms.entrySet()) {
+            Histogram histogram = entry.getValue();
+            if (histogram.getTotalCount() == 0) {
+                continue;
+            }
+            out.printf("%-34s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f%n",
+                    entry.getKey().endpoint, histogram.getTotalCount(), errors.get(entry.getKey()).sum(),
+                    histogram.getTotalCount() / seconds,
+                    millis(histogram.getValueAtPercentile(50)), millis(histogram.getValueAtPercentile(99)),
+                    millis(histogram.getValueAtPercentile(99.9)), millis(histogram.getMaxValue()));
+        }
+    }
+    
+    // summary.csv with the printed figures, and a <operation>.hgrm percentile distribution
+    // per operation (plottable with HdrHistogram's plotter) in the output directory
+    void write(Path directory, double seconds) throws IOException {
+        Files.createDirectories(directory);
+        try (PrintWriter summary = new PrintWriter(Files.newBufferedWriter(directory.resolve("summary.csv")))) {
+            summary.println("endpoint,count,errors,throughput,p50_ms,p99_ms,p999_ms,max_ms");
+            for (Map.Entry<Operation, Histogram> entry : histograms.entrySet()) {
+                Histogram histogram = entry.getValue();
+                if (histogram.getTotalCount() == 0) {
+                    continue;
+                }
+                summary.printf("\"%s\",%d,%d,%.1f,%.3f,%.3f,%.3f,%.3f%n",
+                        entry.getKey().endpoint, histogram.getTotalCount(), errors.get(entry.getKey()).sum(),
+                        histogram.getTotalCount() / seconds,
+                        millis(histogram.getValueAtPercentile(50)), millis(histogram.getValueAtPercentile(99)),
+                        millis(histogram.getValueAtPercentile(99.9)), millis(histogram.getMaxValue()));
+                try (PrintStream hgrm = new PrintStream(
+                        Files.newOutputStream(directory.resolve(entry.getKey().key + ".hgrm")))) {
+                    histogram.outputPercentileDistribution(hgrm, 1000.0);
+                }
+            }
+        }
+    }
+    
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+}
@@ -0,0 +1,145 @@
+package com.moneytracker.loadtest;
+
+import com.moneytracker.MoneyTrackerApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+// Starts the application on a random port, seeds it, drives the configured mix of requests
+// against it and reports per-endpoint throughput and latency percentiles.
+//
+// In OPEN mode a dispatcher releases requests on a fixed schedule and each latency is measured
+// from the request's scheduled start, so time spent queued behind slow responses counts
+// (no coordinated omission). CLOSED mode measures service time only and understates the tail
+// once the server saturates.
+//
+// Every argument is also passed to Spring, so application properties can be overridden too:
+//   --loadtest.rate=500 --loadtest.mix=send:50,all:50 --spring.profiles.active=persistent
+public class LoadTest {
+    
+    public static void main(String[] args) throws Exception {
+        // DevTools would restart the context on a separate thread when started from a main method
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(MoneyTrackerApplication.class)
+                .properties("server.port=0",
+                            "spring.jpa.show-sql=false",
+                            "spring.main.banner-mode=off",
+                            "logging.level.root=WARN")
+                .run(args);
+        try {
+            LoadTestOptions options = new LoadTestOptions(context.getEnvironment());
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            String baseUrl = "http://localhost:" + port
+                    + context.getEnvironment().getProperty("server.servlet.context-path", "");
+            
+            long seedStart = System.nanoTime();
+            Dataset dataset = Dataset.seed(context, options);
+            System.out.printf("Seeded %d users x %d people x %d transactions in %.1f s%n",
+                    options.users, options.people, options.transactions, (System.nanoTime() - seedStart) / 1e9);
+            
+            System.out.printf("Running %s mode against %s: %s, warmup %s, measured %s%n", options.mode, baseUrl,
+                    options.mode == LoadTestOptions.Mode.OPEN
+                            ? options.rate + " req/s on up to " + options.concurrency + " threads"
+                            : options.concurrency + " threads",
+                    options.warmup, options.duration);
+            LatencyResults results = new LoadTest(options, dataset, new ApiClient(baseUrl)).run();
+            
+            double seconds = options.duration.toNanos() / 1e9;
+            results.print(System.out, seconds);
+            results.write(Path.of(options.output), seconds);
+            System.out.println("Histograms written to " + Path.of(options.output).toAbsolutePath());
+        } finally {
+            context.close();
+        }
+    }
+    
+    private final LoadTestOptions options;
+    private final Dataset dataset;
+    private final ApiClient client;
+    private final LatencyResults results = new LatencyResults();
+    // Operations repeated by weight, so a uniform pick follows the mix
+    private final List<Operation> mix = new ArrayList<>();
+    
+    private LoadTest(LoadTestOptions options, Dataset dataset, ApiClient client) {
+        this.options = options;
+        this.dataset = dataset;
+        this.client = client;
+        for (Map.Entry<Operation, Integer> entry : options.mix.entrySet()) {
+            for (int i = 0; i < entry.getValue(); i++) {
+                mix.add(entry.getKey());
+            }
+        }
+    }
+    
+    private LatencyResults run() throws InterruptedException {
+        long start = System.nanoTime();
+        long measureFrom = start + options.warmup.toNanos();
+        long end = measureFrom + options.duration.toNanos();
+        if (options.mode == LoadTestOptions.Mode.OPEN) {
+            runOpen(start, measureFrom, end);
+        } else {
+            runClosed(measureFrom, end);
+        }
+        return results;
+    }
+    
+    // The dispatcher never waits for responses: requests queue in the pool when all threads are
+    // busy, and the wait is part of their latency
+    private void runOpen(long start, long measureFrom, long end) throws InterruptedException {
+        ExecutorService workers = Executors.newFixedThreadPool(options.concurrency);
+        double intervalNanos = 1e9 / options.rate;
+        for (long i = 0; ; i++) {
+            long scheduled = start + (long) (i * intervalNanos);
+            if (scheduled >= end) {
+                break;
+            }
+            long wait;
+            while ((wait = scheduled - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            workers.execute(() -> call(scheduled, scheduled >= measureFrom));
+        }
+        workers.shutdown();
+        workers.awaitTermination(1, TimeUnit.HOURS);
+    }
+    
+    private void runClosed(long measureFrom, long end) throws InterruptedException {
+        ExecutorService workers = Executors.newFixedThreadPool(options.concurrency);
+        for (int t = 0; t < options.concurrency; t++) {
+            workers.execute(() -> {
+                long started;
+                while ((started = System.nanoTime()) < end) {
+                    call(started, started >= measureFrom);
+                }
+            });
+        }
+        workers.shutdown();
+        workers.awaitTermination(1, TimeUnit.HOURS);
+    }
+    
+    // Send one request of the mix and record its latency since 'since'
+    private void call(long since, boolean measured) {
+        Random random = ThreadLocalRandom.current();
+        ApiClient.Call call = client.prepare(mix.get(random.nextInt(mix.size())), dataset, random);
+        boolean ok;
+        try {
+            ok = client.execute(call, random);
+        } catch (Exception e) {
+            ok = false;
+        }
+        if (measured) {
+            results.record(call.operation(), System.nanoTime() - since, ok);
+        }
+    }
+}
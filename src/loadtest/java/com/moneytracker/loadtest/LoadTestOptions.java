@@ -0,0 +1,67 @@
+package com.moneytracker.loadtest;
+
+import org.springframework.core.env.Environment;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+// Harness settings, read from the application's environment so they can be passed like any
+// Spring property: --loadtest.rate=500 on the command line or LOADTEST_RATE in the environment
+class LoadTestOptions {
+    
+    // OPEN issues requests on a fixed schedule whatever the response times; CLOSED keeps
+    // 'concurrency' requests in flight and sends the next one when a response arrives
+    enum Mode { OPEN, CLOSED }
+    
+    final Mode mode;
+    // Requests per second in OPEN mode
+    final int rate;
+    // Worker threads: requests in flight at most (OPEN) or always (CLOSED)
+    final int concurrency;
+    final Duration warmup;
+    final Duration duration;
+    // Seeded dataset: users, people per user and transactions per user
+    final int users;
+    final int people;
+    final int transactions;
+    final Map<Operation, Integer> mix;
+    // Directory for the .hgrm percentile distributions and summary.csv
+    final String output;
+    
+    LoadTestOptions(Environment environment) {
+        mode = Mode.valueOf(environment.getProperty("loadtest.mode", "OPEN").toUpperCase());
+        rate = environment.getProperty("loadtest.rate", Integer.class, 200);
+        concurrency = environment.getProperty("loadtest.concurrency", Integer.class, 32);
+        warmup = environment.getProperty("loadtest.warmup", Duration.class, Duration.ofSeconds(10));
+        duration = environment.getProperty("loadtest.duration", Duration.class, Duration.ofSeconds(60));
+        users = environment.getProperty("loadtest.users", Integer.class, 20);
+        people = environment.getProperty("loadtest.people", Integer.class, 20);
+        transactions = environment.getProperty("loadtest.transactions", Integer.class, 500);
+        mix = parseMix(environment.getProperty("loadtest.mix", "login:2,add:8,send:40,all:40,reverse:10"));
+        output = environment.getProperty("loadtest.output", "target/loadtest");
+        
+        if (rate < 1 || concurrency < 1 || users < 1 || people < 1) {
+            throw new IllegalArgumentException("loadtest.rate, concurrency, users and people must be positive");
+        }
+    }
+    
+    // "send:40,all:60" -> weights per operation; operations left out are not run
+    private static Map<Operation, Integer> parseMix(String text) {
+        Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+        for (String entry : text.split(",")) {
+            String[] parts = entry.trim().split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("loadtest.mix entries must be operation:weight, got '" + entry + "'");
+            }
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight > 0) {
+                mix.put(Operation.fromName(parts[0].trim()), weight);
+            }
+        }
+        if (mix.isEmpty()) {
+            throw new IllegalArgumentException("loadtest.mix has no operation with a positive weight");
+        }
+        return mix;
+    }
+}
@@ -0,0 +1,28 @@
+package com.moneytracker.loadtest;
+
+import java.util.Arrays;
+
+// Endpoints the workload mixes, each with its own latency histogram
+enum Operation {
+    LOGIN("login", "POST /auth/login"),
+    ADD("add", "POST /people/add"),
+    SEND("send", "POST /people/send"),
+    ALL("all", "GET /transactions/all"),
+    REVERSE("reverse", "DELETE /transactions/{id}/reverse");
+    
+    // Name used in loadtest.mix
+    final String key;
+    final String endpoint;
+    
+    Operation(String key, String endpoint) {
+        this.key = key;
+        this.endpoint = endpoint;
+    }
+    
+    static Operation fromName(String key) {
+        return Arrays.stream(values())
+                .filter(operation -> operation.key.equalsIgnoreCase(key))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown operation '" + key + "' in loadtest.mix"));
+    }
+}
@@ -0,0 +1,36 @@
+package com.moneytracker.config;
+
+import com.moneytracker.repository.PersonRepository;
+import com.moneytracker.service.PersonService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+// Removes the history of soft-deleted people in the background, people.purge.batch-size rows
+// per transaction, so no single statement or lock grows with the length of a history. Only
+// scheduled with people.delete.soft=true; otherwise nothing is ever flagged.
+@Component
+@ConditionalOnProperty(name = "people.delete.soft", havingValue = "true")
+public class DeletedPeoplePurger {
+    
+    @Autowired
+    private PersonRepository personRepository;
+    
+    @Autowired
+    private PersonService personService;
+    
+    @Value("${people.purge.batch-size:1000}")
+    private int batchSize;
+    
+    @Scheduled(fixedDelayString = "${people.purge.interval-ms:10000}")
+    public void purge() {
+        for (Long personId : personRepository.findDeletedIds()) {
+            boolean gone = false;
+            while (!gone) {
+                gone = personService.purgeDeleted(personId, batchSize);
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,67 @@
+package com.moneytracker.config;
+
+import com.moneytracker.util.RequestStatistics;
+import com.moneytracker.util.RowCountingDataSource;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.InitializeCollectionEventListener;
+import org.hibernate.event.spi.PostLoadEventListener;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+// Feeds RequestStatistics from Hibernate: every SQL statement passes the statement inspector,
+// every hydrated entity fires a post-load event and every lazy collection an initialize event.
+// Rows are counted below Hibernate, by RowCountingDataSource.
+// Application-wide totals come from Hibernate's own statistics (hibernate.* metrics).
+@Configuration
+public class HibernateMetricsConfig {
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    // Static, so building the factory does not need this class (which needs the factory)
+    @Bean
+    public static HibernatePropertiesCustomizer requestStatementCounter() {
+        StatementInspector inspector = sql -> {
+            RequestStatistics.statementPrepared(sql);
+            return sql;
+        };
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, inspector);
+    }
+    
+    // Wrap the pool so rows read by any query are counted; off with sql.budget.count-rows=false
+    @Bean
+    public static BeanPostProcessor rowCountingDataSource(
+            @Value("${sql.budget.count-rows:true}") boolean countRows) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return countRows && bean instanceof DataSource dataSource ? RowCountingDataSource.wrap(dataSource) : bean;
+            }
+        };
+    }
+    
+    @PostConstruct
+    public void registerListeners() {
+        EventListenerRegistry listeners = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().getService(EventListenerRegistry.class);
+        listeners.appendListeners(EventType.POST_LOAD, (PostLoadEventListener) event -> RequestStatistics.entityLoaded());
+        // Appended after Hibernate's default listener, so this runs once the collection is loaded
+        listeners.appendListeners(EventType.INIT_COLLECTION, (InitializeCollectionEventListener) event -> {
+            if (event.getCollection().wasInitialized()) {
+                RequestStatistics.collectionFetched();
+            }
+        });
+    }
+}
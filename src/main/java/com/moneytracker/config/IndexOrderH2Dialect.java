@@ -0,0 +1,14 @@
+package com.moneytracker.config;
+
+import org.hibernate.dialect.H2Dialect;
+
+// H2 dialect that always writes ORDER BY items as column expressions. Hibernate otherwise refers
+// to a selected column by its position (ORDER BY 1 DESC), which H2 does not match against index
+// order: it then picks the foreign key index and sorts every row of the user before a LIMIT.
+public class IndexOrderH2Dialect extends H2Dialect {
+    
+    @Override
+    public boolean supportsOrdinalSelectItemReference() {
+        return false;
+    }
+}
\ No newline at end of file
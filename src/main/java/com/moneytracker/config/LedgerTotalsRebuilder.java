@@ -0,0 +1,22 @@
+package com.moneytracker.config;
+
+import com.moneytracker.service.LedgerTotalsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+// Recomputes every user's summary totals at startup when ledger.totals.rebuild-on-startup=true
+@Component
+@ConditionalOnProperty(name = "ledger.totals.rebuild-on-startup", havingValue = "true")
+public class LedgerTotalsRebuilder implements CommandLineRunner {
+    
+    @Autowired
+    private LedgerTotalsService ledgerTotalsService;
+    
+    @Override
+    public void run(String... args) throws Exception {
+        int rebuilt = ledgerTotalsService.rebuildAll();
+        System.out.println("Rebuilt ledger totals for " + rebuilt + " users");
+    }
+}
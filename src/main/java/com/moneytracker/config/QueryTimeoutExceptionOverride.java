@@ -0,0 +1,20 @@
+package com.moneytracker.config;
+
+import com.zaxxer.hikari.SQLExceptionOverride;
+
+import java.sql.SQLException;
+
+// Keeps a pooled connection whose statement hit its query timeout. Hikari treats SQLSTATE 57014
+// (statement canceled) as a dead connection and evicts it, so the rollback that follows fails and
+// replaces the timeout error; the H2 session itself is still usable.
+public class QueryTimeoutExceptionOverride implements SQLExceptionOverride {
+    
+    private static final String STATEMENT_CANCELED = "57014";
+    
+    // No @Override: inside this class the name refers to the inherited SQLExceptionOverride.Override
+    public SQLExceptionOverride.Override adjudicate(SQLException e) {
+        return STATEMENT_CANCELED.equals(e.getSQLState())
+                ? SQLExceptionOverride.Override.DO_NOT_EVICT
+                : SQLExceptionOverride.Override.CONTINUE_EVICT;
+    }
+}
\ No newline at end of file
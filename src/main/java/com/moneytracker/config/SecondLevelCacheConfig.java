@@ -0,0 +1,95 @@
+package com.moneytracker.config;
+
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import org.ehcache.config.CacheConfiguration;
+import org.ehcache.config.builders.CacheConfigurationBuilder;
+import org.ehcache.config.builders.ExpiryPolicyBuilder;
+import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.ehcache.expiry.ExpiryPolicy;
+import org.ehcache.jsr107.Eh107Configuration;
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.time.Duration;
+import java.util.List;
+
+// Bounded in-process cache regions behind Hibernate's second-level cache
+@Configuration
+public class SecondLevelCacheConfig {
+    
+    // Regions named by @Cache / @NaturalIdCache on User and Person
+    private static final List<String> ENTITY_REGIONS = List.of("users", "users-natural-id", "people", "people-natural-id");
+    
+    // Regions named by cacheable repository queries, plus Hibernate's default query region
+    private static final List<String> QUERY_REGIONS = List.of("people-by-user", "default-query-results-region");
+    
+    // Last-change time per table; cached query results are checked against it, so it never expires
+    private static final String TIMESTAMPS_REGION = "default-update-timestamps-region";
+    
+    @Value("${cache.entities.max-entries:10000}")
+    private long entityMaxEntries;
+    
+    @Value("${cache.entities.ttl-seconds:600}")
+    private long entityTtlSeconds;
+    
+    @Value("${cache.queries.max-entries:1000}")
+    private long queryMaxEntries;
+    
+    @Value("${cache.queries.ttl-seconds:60}")
+    private long queryTtlSeconds;
+    
+    // Cache manager handed to Hibernate, with every region bounded by entry count and time to live
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager() {
+        CachingProvider provider = Caching.getCachingProvider(EhcacheCachingProvider.class.getName());
+        CacheManager cacheManager = provider.getCacheManager(provider.getDefaultURI(), getClass().getClassLoader());
+        
+        for (String region : ENTITY_REGIONS) {
+            createRegion(cacheManager, region, entityMaxEntries,
+                    ExpiryPolicyBuilder.timeToLiveExpiration(Duration.ofSeconds(entityTtlSeconds)));
+        }
+        for (String region : QUERY_REGIONS) {
+            createRegion(cacheManager, region, queryMaxEntries,
+                    ExpiryPolicyBuilder.timeToLiveExpiration(Duration.ofSeconds(queryTtlSeconds)));
+        }
+        // One entry per table, so the bound is never reached
+        createRegion(cacheManager, TIMESTAMPS_REGION, 1000, ExpiryPolicyBuilder.noExpiration());
+        return cacheManager;
+    }
+    
+    // Use our cache manager instead of letting Hibernate create an unbounded one
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+    
+    // Hit/miss/put/eviction counts per region as cache.* metrics (Hibernate's own statistics
+    // are published as hibernate.* metrics when hibernate.generate_statistics is on)
+    @Bean
+    public MeterBinder secondLevelCacheMetrics(CacheManager hibernateCacheManager) {
+        return registry -> {
+            for (String region : hibernateCacheManager.getCacheNames()) {
+                new JCacheMetrics<>(hibernateCacheManager.getCache(region), Tags.of("layer", "hibernate")).bindTo(registry);
+            }
+        };
+    }
+    
+    private void createRegion(CacheManager cacheManager, String name, long maxEntries,
+                              ExpiryPolicy<Object, Object> expiry) {
+        CacheConfiguration<Object, Object> configuration = CacheConfigurationBuilder
+                .newCacheConfigurationBuilder(Object.class, Object.class, ResourcePoolsBuilder.heap(maxEntries))
+                .withExpiry(expiry)
+                .build();
+        cacheManager.createCache(name, Eh107Configuration.fromEhcacheCacheConfiguration(configuration));
+        cacheManager.enableStatistics(name, true);
+    }
+}
\ No newline at end of file
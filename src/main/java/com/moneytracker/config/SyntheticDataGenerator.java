@@ -0,0 +1,120 @@
+package com.moneytracker.config;
+
+import com.moneytracker.entity.User;
+import com.moneytracker.service.LedgerTotalsService;
+import com.moneytracker.service.SyntheticDataService;
+import com.moneytracker.service.SyntheticDataService.LedgerResult;
+import com.moneytracker.service.SyntheticDataService.LedgerSpec;
+import com.moneytracker.service.UserService;
+import com.moneytracker.util.ZipfSampler;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Seeds a large synthetic dataset at startup with the 'dataset' profile (application-dataset.properties):
+// users gen-user-0..N-1, each with the same number of people and an equal share of the
+// transactions, skewed across people and days. Users are generated in parallel; the seed makes
+// every run produce the same data. Skipped when gen-user-0 already exists.
+@Component
+@Profile("dataset")
+public class SyntheticDataGenerator implements CommandLineRunner {
+    
+    @Autowired
+    private UserService userService;
+    
+    @Autowired
+    private LedgerTotalsService ledgerTotalsService;
+    
+    @Autowired
+    private SyntheticDataService syntheticDataService;
+    
+    @Value("${dataset.users:10}")
+    private int users;
+    
+    @Value("${dataset.people-per-user:50}")
+    private int peoplePerUser;
+    
+    @Value("${dataset.transactions:1000000}")
+    private long transactions;
+    
+    @Value("${dataset.people-skew:1.0}")
+    private double peopleSkew;
+    
+    @Value("${dataset.days:730}")
+    private int days;
+    
+    @Value("${dataset.date-skew:0.8}")
+    private double dateSkew;
+    
+    @Value("${dataset.description-rate:0.3}")
+    private double descriptionRate;
+    
+    @Value("${dataset.batch-size:1000}")
+    private int batchSize;
+    
+    @Value("${dataset.threads:0}")
+    private int threads;
+    
+    @Value("${dataset.seed:42}")
+    private long seed;
+    
+    @Value("${dataset.password:password}")
+    private String password;
+    
+    @Override
+    public void run(String... args) throws Exception {
+        if (userService.usernameExists(username(0))) {
+            System.out.println("Synthetic dataset already present; not generating");
+            return;
+        }
+        
+        long start = System.nanoTime();
+        ZipfSampler personSampler = new ZipfSampler(peoplePerUser, peopleSkew);
+        ZipfSampler daySampler = new ZipfSampler(days, dateSkew);
+        LocalDate lastDay = LocalDate.now();
+        
+        ExecutorService pool = Executors.newFixedThreadPool(
+                threads > 0 ? threads : Runtime.getRuntime().availableProcessors());
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int u = 0; u < users; u++) {
+                int index = u;
+                // The first users take the remainder
+                long share = transactions / users + (index < transactions % users ? 1 : 0);
+                LedgerSpec spec = new LedgerSpec(peoplePerUser, share, personSampler, daySampler, lastDay,
+                        descriptionRate, batchSize);
+                futures.add(pool.submit(() -> {
+                    User user = userService.registerUser(username(index), username(index) + "@dataset.local", password);
+                    long version = ledgerTotalsService.beginChange(user.getId());
+                    LedgerResult result = syntheticDataService.generateLedger(user.getId(), version, spec,
+                            new Random(seed + index));
+                    syntheticDataService.finishLedger(user.getId(), version, result);
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+        
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Generated %d users, %d people and %d transactions in %.1f s (%.0f transactions/s)%n",
+                users, (long) users * peoplePerUser, transactions, seconds, transactions / seconds);
+    }
+    
+    private static String username(int index) {
+        return "gen-user-" + index;
+    }
+}
@@ -1,12 +1,28 @@
 package com.moneytracker.config;
 
+import com.moneytracker.controller.CurrentUserArgumentResolver;
+import com.moneytracker.filter.SqlBudgetInterceptor;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import java.util.List;
+
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
     
+    @Autowired
+    private SqlBudgetInterceptor sqlBudgetInterceptor;
+    
+    @Autowired
+    private CurrentUserArgumentResolver currentUserArgumentResolver;
+    
+    // The only CORS configuration: Spring Security's cors() finds no CorsConfigurationSource bean
+    // and reads these mappings. A controller-level @CrossOrigin("*") on top of it is rejected
+    // alongside allowCredentials(true), which fails every request to that controller.
     @Override
     public void addCorsMappings(CorsRegistry registry) {
         registry.addMapping("/**")
@@ -16,4 +32,14 @@ public class WebConfig implements WebMvcConfigurer {
                 .allowCredentials(true)
                 .maxAge(3600);
     }
+    
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(sqlBudgetInterceptor);
+    }
+    
+    @Override
+    public void addArgumentResolvers(List<HandlerMethodArgumentResolver> resolvers) {
+        resolvers.add(currentUserArgumentResolver);
+    }
 }
\ No newline at end of file
@@ -1,9 +1,12 @@
 package com.moneytracker.controller;
 
 import com.moneytracker.entity.User;
+import com.moneytracker.service.PasswordHashingBusyException;
 import com.moneytracker.service.UserService;
 import com.moneytracker.util.JwtUtil;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -12,7 +15,6 @@ import java.util.Map;
 
 @RestController
 @RequestMapping("/auth")
-@CrossOrigin(origins = "*")
 public class AuthController {
     
     @Autowired
@@ -36,7 +38,7 @@ public class AuthController {
             User user = userService.authenticateUser(username, password);
             
             // Generate JWT token
-            String token = jwtUtil.generateToken(username);
+            String token = jwtUtil.generateToken(user.getUsername(), user.getId());
             
             // Return response with token
             Map<String, Object> response = new HashMap<>();
@@ -46,6 +48,8 @@ public class AuthController {
             
             return ResponseEntity.ok(response);
             
+        } catch (PasswordHashingBusyException e) {
+            return serviceBusy(e);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Login failed: " + e.getMessage());
         }
@@ -67,7 +71,7 @@ public class AuthController {
             User user = userService.registerUser(username, email, password);
             
             // Generate JWT token for immediate login
-            String token = jwtUtil.generateToken(username);
+            String token = jwtUtil.generateToken(user.getUsername(), user.getId());
             
             // Return response with token
             Map<String, Object> response = new HashMap<>();
@@ -77,11 +81,20 @@ public class AuthController {
             
             return ResponseEntity.ok(response);
             
+        } catch (PasswordHashingBusyException e) {
+            return serviceBusy(e);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Registration failed: " + e.getMessage());
         }
     }
     
+    // Password hashing is saturated; ask the client to back off
+    private ResponseEntity<?> serviceBusy(PasswordHashingBusyException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(e.getMessage());
+    }
+    
     // Check if username exists
     @GetMapping("/check-username")
     public ResponseEntity<?> checkUsername(@RequestParam String username) {
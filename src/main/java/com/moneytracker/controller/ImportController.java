@@ -0,0 +1,34 @@
+package com.moneytracker.controller;
+
+import com.moneytracker.dto.ImportResult;
+import com.moneytracker.entity.User;
+import com.moneytracker.service.ImportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+
+@RestController
+@RequestMapping("/import")
+public class ImportController {
+    
+    @Autowired
+    private ImportService importService;
+    
+    // Import people and transactions from an uploaded CSV file (multipart field "file")
+    @PostMapping
+    public ResponseEntity<?> importCsv(@RequestParam("file") MultipartFile file, @CurrentUser User user) {
+        try {
+            try (Reader reader = new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8)) {
+                ImportResult result = importService.importCsv(user, reader);
+                return ResponseEntity.ok(result);
+            }
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error importing: " + e.getMessage());
+        }
+    }
+}
\ No newline at end of file
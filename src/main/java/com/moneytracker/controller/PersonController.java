@@ -1,45 +1,46 @@
 package com.moneytracker.controller;
 
+import com.moneytracker.dto.PersonView;
+import com.moneytracker.dto.StatementPage;
 import com.moneytracker.entity.Person;
 import com.moneytracker.entity.User;
+import com.moneytracker.service.LedgerRetry;
+import com.moneytracker.service.LedgerTotalsService;
 import com.moneytracker.service.PersonService;
-import com.moneytracker.service.UserService;
+import com.moneytracker.util.LedgerETag;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.List;
-import java.util.Optional;
 
 @RestController
 @RequestMapping("/people")
-@CrossOrigin(origins = "*")
 public class PersonController {
     
     @Autowired
     private PersonService personService;
     
     @Autowired
-    private UserService userService;
-    
-    // Get current user from authentication
-    private User getCurrentUser(Authentication authentication) {
-        String username = authentication.getName();
-        Optional<User> userOpt = userService.findByUsername(username);
-        if (userOpt.isEmpty()) {
-            throw new RuntimeException("User not found");
-        }
-        return userOpt.get();
-    }
+    private LedgerTotalsService ledgerTotalsService;
     
     // Get all people for current user
     @GetMapping("/all")
-    public ResponseEntity<?> getAllPeople(Authentication authentication) {
+    public ResponseEntity<?> getAllPeople(@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                          @CurrentUser User user) {
         try {
-            User user = getCurrentUser(authentication);
-            List<Person> people = personService.getAllPeopleForUser(user);
-            return ResponseEntity.ok(people);
+            // The version is read before the list, so a concurrent write can only leave the
+            // ETag older than the body (next request refetches), never newer
+            String etag = LedgerETag.of(user.getId(), ledgerTotalsService.getLedgerVersion(user.getId()));
+            if (LedgerETag.matches(ifNoneMatch, etag)) {
+                return LedgerETag.notModified(etag);
+            }
+            
+            List<PersonView> people = personService.getAllPeopleForUser(user);
+            return ResponseEntity.ok().eTag(etag).cacheControl(LedgerETag.CACHE_CONTROL).body(people);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Error getting people: " + e.getMessage());
         }
@@ -47,9 +48,8 @@ public class PersonController {
     
     // Add new person
     @PostMapping("/add")
-    public ResponseEntity<?> addPerson(@RequestParam String name, Authentication authentication) {
+    public ResponseEntity<?> addPerson(@RequestParam String name, @CurrentUser User user) {
         try {
-            User user = getCurrentUser(authentication);
             Person person = personService.addPerson(name.trim(), user);
             return ResponseEntity.ok(person);
         } catch (Exception e) {
@@ -59,9 +59,8 @@ public class PersonController {
     
     // Delete person by name
     @DeleteMapping("/{name}")
-    public ResponseEntity<?> deletePerson(@PathVariable String name, Authentication authentication) {
+    public ResponseEntity<?> deletePerson(@PathVariable String name, @CurrentUser User user) {
         try {
-            User user = getCurrentUser(authentication);
             personService.deletePerson(name, user);
             return ResponseEntity.ok("Person deleted successfully");
         } catch (Exception e) {
@@ -72,16 +71,34 @@ public class PersonController {
     @Autowired
     private com.moneytracker.service.TransactionService transactionService;
     
+    @Autowired
+    private LedgerRetry ledgerRetry;
+    
+    // Get one page of a person's statement with running balances (cursor from previous page's nextCursor)
+    @GetMapping("/{name}/statement")
+    public ResponseEntity<?> getStatement(@PathVariable String name,
+                                          @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                          @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                          @RequestParam(required = false) String cursor,
+                                          @RequestParam(required = false) Integer size,
+                                          @CurrentUser User user) {
+        try {
+            StatementPage page = transactionService.getStatement(user, name, from, to, cursor, size);
+            return ResponseEntity.ok(page);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error getting statement: " + e.getMessage());
+        }
+    }
+    
     // Send money to person
     @PostMapping("/send")
     public ResponseEntity<?> sendMoney(@RequestParam String name, 
                                        @RequestParam String amount,
                                        @RequestParam(required = false) String description,
-                                       Authentication authentication) {
+                                       @CurrentUser User user) {
         try {
-            User user = getCurrentUser(authentication);
             java.math.BigDecimal amountValue = new java.math.BigDecimal(amount);
-            com.moneytracker.entity.Transaction transaction = transactionService.sendMoney(name, amountValue, description, user);
+            com.moneytracker.entity.Transaction transaction = ledgerRetry.run(() -> transactionService.sendMoney(name, amountValue, description, user));
             return ResponseEntity.ok(transaction);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Error sending money: " + e.getMessage());
@@ -93,11 +110,10 @@ public class PersonController {
     public ResponseEntity<?> receiveMoney(@RequestParam String name, 
                                           @RequestParam String amount,
                                           @RequestParam(required = false) String description,
-                                          Authentication authentication) {
+                                          @CurrentUser User user) {
         try {
-            User user = getCurrentUser(authentication);
             java.math.BigDecimal amountValue = new java.math.BigDecimal(amount);
-            com.moneytracker.entity.Transaction transaction = transactionService.receiveMoney(name, amountValue, description, user);
+            com.moneytracker.entity.Transaction transaction = ledgerRetry.run(() -> transactionService.receiveMoney(name, amountValue, description, user));
             return ResponseEntity.ok(transaction);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Error receiving money: " + e.getMessage());
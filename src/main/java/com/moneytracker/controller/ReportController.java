@@ -0,0 +1,61 @@
+package com.moneytracker.controller;
+
+import com.moneytracker.dto.RollupPoint;
+import com.moneytracker.entity.Person;
+import com.moneytracker.entity.RollupGranularity;
+import com.moneytracker.entity.User;
+import com.moneytracker.service.PersonService;
+import com.moneytracker.service.RollupService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/reports")
+public class ReportController {
+    
+    @Autowired
+    private RollupService rollupService;
+    
+    @Autowired
+    private PersonService personService;
+    
+    // Get daily or monthly sums/counts per person and type for a date range
+    @GetMapping("/rollups")
+    public ResponseEntity<?> getRollups(@RequestParam(defaultValue = "MONTH") RollupGranularity granularity,
+                                        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                        @RequestParam(required = false) String person,
+                                        @CurrentUser User user) {
+        try {
+            Long personId = null;
+            if (person != null) {
+                Optional<Person> personOpt = personService.findByNameAndUser(person, user);
+                if (personOpt.isEmpty()) {
+                    throw new RuntimeException("Person not found");
+                }
+                personId = personOpt.get().getId();
+            }
+            List<RollupPoint> points = rollupService.getRange(user.getId(), granularity, from, to, personId);
+            return ResponseEntity.ok(points);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error getting rollups: " + e.getMessage());
+        }
+    }
+    
+    // Recompute current user's rollups from the transactions table
+    @PostMapping("/rollups/rebuild")
+    public ResponseEntity<?> rebuildRollups(@CurrentUser User user) {
+        try {
+            rollupService.rebuildForUser(user.getId());
+            return ResponseEntity.ok("Rollups rebuilt successfully");
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error rebuilding rollups: " + e.getMessage());
+        }
+    }
+}
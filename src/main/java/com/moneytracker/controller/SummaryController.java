@@ -0,0 +1,38 @@
+package com.moneytracker.controller;
+
+import com.moneytracker.entity.LedgerTotals;
+import com.moneytracker.entity.User;
+import com.moneytracker.service.LedgerTotalsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/summary")
+public class SummaryController {
+    
+    @Autowired
+    private LedgerTotalsService ledgerTotalsService;
+    
+    // Get owed / owes / net plus per-type totals and counts for current user
+    @GetMapping
+    public ResponseEntity<?> getSummary(@CurrentUser User user) {
+        try {
+            LedgerTotals totals = ledgerTotalsService.getTotals(user.getId());
+            return ResponseEntity.ok(totals);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error getting summary: " + e.getMessage());
+        }
+    }
+    
+    // Recompute current user's summary from the transactions table
+    @PostMapping("/rebuild")
+    public ResponseEntity<?> rebuildSummary(@CurrentUser User user) {
+        try {
+            LedgerTotals totals = ledgerTotalsService.rebuild(user.getId());
+            return ResponseEntity.ok(totals);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error rebuilding summary: " + e.getMessage());
+        }
+    }
+}
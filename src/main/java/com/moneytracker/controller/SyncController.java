@@ -0,0 +1,27 @@
+package com.moneytracker.controller;
+
+import com.moneytracker.dto.SyncResponse;
+import com.moneytracker.entity.User;
+import com.moneytracker.service.SyncService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/sync")
+public class SyncController {
+    
+    @Autowired
+    private SyncService syncService;
+    
+    // Get people, transactions and removals since the version returned by the previous sync
+    @GetMapping
+    public ResponseEntity<?> sync(@RequestParam(required = false) Long since, @CurrentUser User user) {
+        try {
+            SyncResponse changes = syncService.getChanges(user, since);
+            return ResponseEntity.ok(changes);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error syncing: " + e.getMessage());
+        }
+    }
+}
\ No newline at end of file
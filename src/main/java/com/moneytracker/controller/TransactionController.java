@@ -1,61 +1,153 @@
 package com.moneytracker.controller;
 
+import com.moneytracker.dto.ExportFormat;
+import com.moneytracker.dto.SearchOrder;
+import com.moneytracker.dto.TextMatch;
+import com.moneytracker.dto.TransactionPage;
+import com.moneytracker.dto.TransactionView;
 import com.moneytracker.entity.Transaction;
+import com.moneytracker.entity.TransactionType;
 import com.moneytracker.entity.User;
+import com.moneytracker.service.ExportService;
+import com.moneytracker.service.LedgerRetry;
+import com.moneytracker.service.LedgerTotalsService;
 import com.moneytracker.service.TransactionService;
-import com.moneytracker.service.UserService;
+import com.moneytracker.util.LedgerETag;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.util.List;
-import java.util.Optional;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/transactions")
-@CrossOrigin(origins = "*")
 public class TransactionController {
     
     @Autowired
     private TransactionService transactionService;
     
     @Autowired
-    private UserService userService;
+    private LedgerTotalsService ledgerTotalsService;
     
-    // Get current user from authentication
-    private User getCurrentUser(Authentication authentication) {
-        String username = authentication.getName();
-        Optional<User> userOpt = userService.findByUsername(username);
-        if (userOpt.isEmpty()) {
-            throw new RuntimeException("User not found");
-        }
-        return userOpt.get();
-    }
+    @Autowired
+    private LedgerRetry ledgerRetry;
+    
+    @Autowired
+    private ExportService exportService;
     
     // Get all transactions for current user
     @GetMapping("/all")
-    public ResponseEntity<?> getAllTransactions(Authentication authentication) {
+    public ResponseEntity<?> getAllTransactions(@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                                @CurrentUser User user) {
         try {
-            User user = getCurrentUser(authentication);
-            List<Transaction> transactions = transactionService.getAllTransactionsForUser(user);
-            return ResponseEntity.ok(transactions);
+            // The version is read before the list, so a concurrent write can only leave the
+            // ETag older than the body (next request refetches), never newer
+            String etag = LedgerETag.of(user.getId(), ledgerTotalsService.getLedgerVersion(user.getId()));
+            if (LedgerETag.matches(ifNoneMatch, etag)) {
+                return LedgerETag.notModified(etag);
+            }
+            
+            List<TransactionView> transactions = transactionService.getAllTransactionsForUser(user);
+            return ResponseEntity.ok().eTag(etag).cacheControl(LedgerETag.CACHE_CONTROL).body(transactions);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Error getting transactions: " + e.getMessage());
         }
     }
     
+    // Get one page of transactions for current user (cursor from previous page's nextCursor)
+    @GetMapping("/page")
+    public ResponseEntity<?> getTransactionPage(@RequestParam(required = false) String cursor,
+                                                @RequestParam(required = false) Integer size,
+                                                @CurrentUser User user) {
+        try {
+            TransactionPage page = transactionService.getTransactionPage(user, cursor, size);
+            return ResponseEntity.ok(page);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error getting transactions: " + e.getMessage());
+        }
+    }
+    
+    // Search transactions for current user; every filter is optional (cursor from previous page's nextCursor)
+    @GetMapping("/search")
+    public ResponseEntity<?> searchTransactions(@RequestParam(required = false) String person,
+                                                @RequestParam(required = false) TransactionType type,
+                                                @RequestParam(required = false) BigDecimal minAmount,
+                                                @RequestParam(required = false) BigDecimal maxAmount,
+                                                @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                @RequestParam(defaultValue = "NEWEST") SearchOrder order,
+                                                @RequestParam(required = false) String cursor,
+                                                @RequestParam(required = false) Integer size,
+                                                @CurrentUser User user) {
+        try {
+            TransactionPage page = transactionService.searchTransactions(user, person, type, minAmount, maxAmount,
+                    from, to, order, cursor, size);
+            return ResponseEntity.ok(page);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error searching transactions: " + e.getMessage());
+        }
+    }
+    
+    // Search transaction descriptions for current user; every term of q must match (cursor from previous page's nextCursor)
+    @GetMapping("/search/text")
+    public ResponseEntity<?> searchDescriptions(@RequestParam String q,
+                                                @RequestParam(defaultValue = "CONTAINS") TextMatch match,
+                                                @RequestParam(required = false) String cursor,
+                                                @RequestParam(required = false) Integer size,
+                                                @CurrentUser User user) {
+        try {
+            TransactionPage page = transactionService.searchDescriptions(user, q, match, cursor, size);
+            return ResponseEntity.ok(page);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error searching descriptions: " + e.getMessage());
+        }
+    }
+    
+    // Download all transactions for current user as CSV or NDJSON, optionally gzipped.
+    // The body is written on an async thread while rows are read, so nothing is buffered.
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportTransactions(@RequestParam(defaultValue = "CSV") ExportFormat format,
+                                                                    @RequestParam(defaultValue = "false") boolean gzip,
+                                                                    @CurrentUser User user) {
+        try {
+            String fileName = "transactions." + format.extension() + (gzip ? ".gz" : "");
+            StreamingResponseBody body = out -> {
+                if (gzip) {
+                    GZIPOutputStream compressed = new GZIPOutputStream(out, 64 * 1024);
+                    exportService.exportTransactions(user, format, compressed);
+                    compressed.finish();
+                } else {
+                    exportService.exportTransactions(user, format, out);
+                }
+            };
+            return ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType(gzip ? "application/gzip" : format.contentType()))
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+                    .body(body);
+        } catch (Exception e) {
+            // Streaming endpoints can only return a streaming body, so the message is written as one
+            byte[] message = ("Error exporting transactions: " + e.getMessage()).getBytes(StandardCharsets.UTF_8);
+            return ResponseEntity.badRequest().contentType(MediaType.TEXT_PLAIN).body(out -> out.write(message));
+        }
+    }
+    
     // Send money to person
     @PostMapping("/send")
     public ResponseEntity<?> sendMoney(@RequestParam String name, 
                                        @RequestParam String amount,
                                        @RequestParam(required = false) String description,
-                                       Authentication authentication) {
+                                       @CurrentUser User user) {
         try {
-            User user = getCurrentUser(authentication);
             BigDecimal amountValue = new BigDecimal(amount);
-            Transaction transaction = transactionService.sendMoney(name, amountValue, description, user);
+            Transaction transaction = ledgerRetry.run(() -> transactionService.sendMoney(name, amountValue, description, user));
             return ResponseEntity.ok(transaction);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Error sending money: " + e.getMessage());
@@ -67,11 +159,10 @@ public class TransactionController {
     public ResponseEntity<?> receiveMoney(@RequestParam String name, 
                                           @RequestParam String amount,
                                           @RequestParam(required = false) String description,
-                                          Authentication authentication) {
+                                          @CurrentUser User user) {
         try {
-            User user = getCurrentUser(authentication);
             BigDecimal amountValue = new BigDecimal(amount);
-            Transaction transaction = transactionService.receiveMoney(name, amountValue, description, user);
+            Transaction transaction = ledgerRetry.run(() -> transactionService.receiveMoney(name, amountValue, description, user));
             return ResponseEntity.ok(transaction);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Error receiving money: " + e.getMessage());
@@ -80,10 +171,9 @@ public class TransactionController {
     
     // Reverse/Delete transaction
     @DeleteMapping("/{id}/reverse")
-    public ResponseEntity<?> reverseTransaction(@PathVariable Long id, Authentication authentication) {
+    public ResponseEntity<?> reverseTransaction(@PathVariable Long id, @CurrentUser User user) {
         try {
-            User user = getCurrentUser(authentication);
-            transactionService.reverseTransaction(id, user);
+            ledgerRetry.run(() -> transactionService.reverseTransaction(id, user));
             return ResponseEntity.ok("Transaction reversed successfully");
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Error reversing transaction: " + e.getMessage());
@@ -0,0 +1,36 @@
+package com.moneytracker.dto;
+
+import java.security.Principal;
+
+// Security principal built from the JWT claims, so controllers know the user id without a lookup
+public class AuthenticatedUser implements Principal {
+    
+    private final Long id;
+    
+    private final String username;
+    
+    // Constructor
+    public AuthenticatedUser(Long id, String username) {
+        this.id = id;
+        this.username = username;
+    }
+    
+    // Getters
+    public Long getId() {
+        return id;
+    }
+    
+    public String getUsername() {
+        return username;
+    }
+    
+    @Override
+    public String getName() {
+        return username;
+    }
+    
+    @Override
+    public String toString() {
+        return username;
+    }
+}
@@ -0,0 +1,16 @@
+package com.moneytracker.dto;
+
+public enum ExportFormat {
+    CSV,     // Comma-separated values with a header line
+    NDJSON;  // One JSON object per line
+    
+    // Media type of the exported file
+    public String contentType() {
+        return this == CSV ? "text/csv" : "application/x-ndjson";
+    }
+    
+    // File name extension of the exported file
+    public String extension() {
+        return name().toLowerCase();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,50 @@
+package com.moneytracker.dto;
+
+import java.util.List;
+
+// Outcome of a bulk import
+public class ImportResult {
+    
+    // Ledger version of the import (every imported row carries it; see sync)
+    private final long version;
+    
+    private final int peopleCreated;
+    
+    private final int transactionsImported;
+    
+    private final int rowsRejected;
+    
+    // The first rejected rows (up to import.max-reported-errors)
+    private final List<ImportRowError> errors;
+    
+    // Constructor
+    public ImportResult(long version, int peopleCreated, int transactionsImported, int rowsRejected,
+                        List<ImportRowError> errors) {
+        this.version = version;
+        this.peopleCreated = peopleCreated;
+        this.transactionsImported = transactionsImported;
+        this.rowsRejected = rowsRejected;
+        this.errors = errors;
+    }
+    
+    // Getters
+    public long getVersion() {
+        return version;
+    }
+    
+    public int getPeopleCreated() {
+        return peopleCreated;
+    }
+    
+    public int getTransactionsImported() {
+        return transactionsImported;
+    }
+    
+    public int getRowsRejected() {
+        return rowsRejected;
+    }
+    
+    public List<ImportRowError> getErrors() {
+        return errors;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,24 @@
+package com.moneytracker.dto;
+
+// A CSV row that was skipped by an import, and why
+public class ImportRowError {
+    
+    private final int line;
+    
+    private final String message;
+    
+    // Constructor
+    public ImportRowError(int line, String message) {
+        this.line = line;
+        this.message = message;
+    }
+    
+    // Getters
+    public int getLine() {
+        return line;
+    }
+    
+    public String getMessage() {
+        return message;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,33 @@
+package com.moneytracker.dto;
+
+import java.math.BigDecimal;
+
+// Read-only view of a person for list responses
+public class PersonView {
+    
+    private final Long id;
+    
+    private final String name;
+    
+    private final BigDecimal balance;
+    
+    // Constructor (used by JPQL constructor expressions)
+    public PersonView(Long id, String name, BigDecimal balance) {
+        this.id = id;
+        this.name = name;
+        this.balance = balance;
+    }
+    
+    // Getters
+    public Long getId() {
+        return id;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public BigDecimal getBalance() {
+        return balance;
+    }
+}
\ No newline at end of file
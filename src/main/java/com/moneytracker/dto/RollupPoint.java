@@ -0,0 +1,50 @@
+package com.moneytracker.dto;
+
+import com.moneytracker.entity.TransactionType;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// One bucket of a rollup range query
+public class RollupPoint {
+    
+    private final String personName;
+    
+    private final LocalDate bucket;
+    
+    private final TransactionType type;
+    
+    private final BigDecimal total;
+    
+    private final long count;
+    
+    // Constructor (used by JPQL constructor expressions)
+    public RollupPoint(String personName, LocalDate bucket, TransactionType type, BigDecimal total, long count) {
+        this.personName = personName;
+        this.bucket = bucket;
+        this.type = type;
+        this.total = total;
+        this.count = count;
+    }
+    
+    // Getters
+    public String getPersonName() {
+        return personName;
+    }
+    
+    public LocalDate getBucket() {
+        return bucket;
+    }
+    
+    public TransactionType getType() {
+        return type;
+    }
+    
+    public BigDecimal getTotal() {
+        return total;
+    }
+    
+    public long getCount() {
+        return count;
+    }
+}
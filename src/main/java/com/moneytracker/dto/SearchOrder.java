@@ -0,0 +1,11 @@
+package com.moneytracker.dto;
+
+public enum SearchOrder {
+    NEWEST,  // Latest transactions first
+    OLDEST;  // Earliest transactions first
+    
+    // Whether keys are walked in descending (date, id) order
+    public boolean isDescending() {
+        return this == NEWEST;
+    }
+}
\ No newline at end of file
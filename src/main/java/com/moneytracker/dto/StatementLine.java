@@ -0,0 +1,58 @@
+package com.moneytracker.dto;
+
+import com.moneytracker.entity.TransactionType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// One row of a person's statement with the person's balance right after it
+public class StatementLine {
+    
+    private final Long id;
+    
+    private final LocalDateTime date;
+    
+    private final TransactionType type;
+    
+    private final BigDecimal amount;
+    
+    private final String description;
+    
+    private final BigDecimal balance;
+    
+    // Constructor (used by the Transaction.statementPage native query mapping)
+    public StatementLine(Long id, LocalDateTime date, String type, BigDecimal amount,
+                         String description, BigDecimal balance) {
+        this.id = id;
+        this.date = date;
+        this.type = TransactionType.valueOf(type);
+        this.amount = amount;
+        this.description = description;
+        this.balance = balance;
+    }
+    
+    // Getters
+    public Long getId() {
+        return id;
+    }
+    
+    public LocalDateTime getDate() {
+        return date;
+    }
+    
+    public TransactionType getType() {
+        return type;
+    }
+    
+    public BigDecimal getAmount() {
+        return amount;
+    }
+    
+    public String getDescription() {
+        return description;
+    }
+    
+    public BigDecimal getBalance() {
+        return balance;
+    }
+}
\ No newline at end of file
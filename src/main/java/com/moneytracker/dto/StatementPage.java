@@ -0,0 +1,40 @@
+package com.moneytracker.dto;
+
+import java.util.List;
+
+public class StatementPage {
+    
+    private List<StatementLine> items;
+    
+    private String nextCursor;
+    
+    // Default constructor
+    public StatementPage() {}
+    
+    // Constructor
+    public StatementPage(List<StatementLine> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+    
+    // Getters and Setters
+    public List<StatementLine> getItems() {
+        return items;
+    }
+    
+    public void setItems(List<StatementLine> items) {
+        this.items = items;
+    }
+    
+    public String getNextCursor() {
+        return nextCursor;
+    }
+    
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+    
+    public boolean isHasMore() {
+        return nextCursor != null;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,52 @@
+package com.moneytracker.dto;
+
+import com.moneytracker.entity.LedgerTombstone;
+
+import java.util.List;
+
+// Changes to a user's ledger since a client's last sync
+public class SyncResponse {
+    
+    // Token for the next sync: the ledger version these changes bring the client up to
+    private final long version;
+    
+    // True when the client must replace its local copy instead of merging (first sync or unknown token)
+    private final boolean full;
+    
+    private final List<PersonView> people;
+    
+    private final List<TransactionView> transactions;
+    
+    private final List<LedgerTombstone> deleted;
+    
+    // Constructor
+    public SyncResponse(long version, boolean full, List<PersonView> people,
+                        List<TransactionView> transactions, List<LedgerTombstone> deleted) {
+        this.version = version;
+        this.full = full;
+        this.people = people;
+        this.transactions = transactions;
+        this.deleted = deleted;
+    }
+    
+    // Getters
+    public long getVersion() {
+        return version;
+    }
+    
+    public boolean isFull() {
+        return full;
+    }
+    
+    public List<PersonView> getPeople() {
+        return people;
+    }
+    
+    public List<TransactionView> getTransactions() {
+        return transactions;
+    }
+    
+    public List<LedgerTombstone> getDeleted() {
+        return deleted;
+    }
+}
\ No newline at end of file
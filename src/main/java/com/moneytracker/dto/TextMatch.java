@@ -0,0 +1,23 @@
+package com.moneytracker.dto;
+
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+public enum TextMatch {
+    CONTAINS,  // Term appears anywhere in the description
+    PREFIX;    // A word of the description starts with the term
+    
+    // SQL condition on t.description for one term, with a single parameter
+    public String condition() {
+        return this == CONTAINS
+                ? "LOCATE(?, LOWER(t.description)) > 0"
+                : "REGEXP_LIKE(t.description, ?)";
+    }
+    
+    // The parameter of condition() for a term
+    public String parameter(String term) {
+        return this == CONTAINS
+                ? term.toLowerCase(Locale.ROOT)
+                : "(?iu)(?<![\\p{L}\\p{N}])" + Pattern.quote(term);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,58 @@
+package com.moneytracker.dto;
+
+import com.moneytracker.entity.TransactionType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// One exported transaction; the person is only referenced by id
+public class TransactionExportRow {
+    
+    private final Long id;
+    
+    private final LocalDateTime date;
+    
+    private final TransactionType type;
+    
+    private final BigDecimal amount;
+    
+    private final Long personId;
+    
+    private final String description;
+    
+    // Constructor (used by the mapping of the Transaction.exportFirstChunk and exportChunk native queries)
+    public TransactionExportRow(Long id, LocalDateTime date, String type, BigDecimal amount,
+                                Long personId, String description) {
+        this.id = id;
+        this.date = date;
+        this.type = TransactionType.valueOf(type);
+        this.amount = amount;
+        this.personId = personId;
+        this.description = description;
+    }
+    
+    // Getters
+    public Long getId() {
+        return id;
+    }
+    
+    public LocalDateTime getDate() {
+        return date;
+    }
+    
+    public TransactionType getType() {
+        return type;
+    }
+    
+    public BigDecimal getAmount() {
+        return amount;
+    }
+    
+    public Long getPersonId() {
+        return personId;
+    }
+    
+    public String getDescription() {
+        return description;
+    }
+}
\ No newline at end of file
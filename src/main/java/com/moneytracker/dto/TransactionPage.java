@@ -0,0 +1,40 @@
+package com.moneytracker.dto;
+
+import java.util.List;
+
+public class TransactionPage {
+    
+    private List<TransactionView> items;
+    
+    private String nextCursor;
+    
+    // Default constructor
+    public TransactionPage() {}
+    
+    // Constructor
+    public TransactionPage(List<TransactionView> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+    
+    // Getters and Setters
+    public List<TransactionView> getItems() {
+        return items;
+    }
+    
+    public void setItems(List<TransactionView> items) {
+        this.items = items;
+    }
+    
+    public String getNextCursor() {
+        return nextCursor;
+    }
+    
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+    
+    public boolean isHasMore() {
+        return nextCursor != null;
+    }
+}
@@ -0,0 +1,58 @@
+package com.moneytracker.dto;
+
+import com.moneytracker.entity.TransactionType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Read-only view of a transaction and its person for list responses
+public class TransactionView {
+    
+    private final Long id;
+    
+    private final BigDecimal amount;
+    
+    private final String description;
+    
+    private final TransactionType type;
+    
+    private final LocalDateTime date;
+    
+    private final PersonView person;
+    
+    // Constructor (used by JPQL constructor expressions; the person columns come from the same join)
+    public TransactionView(Long id, BigDecimal amount, String description, TransactionType type, LocalDateTime date,
+                           Long personId, String personName, BigDecimal personBalance) {
+        this.id = id;
+        this.amount = amount;
+        this.description = description;
+        this.type = type;
+        this.date = date;
+        this.person = new PersonView(personId, personName, personBalance);
+    }
+    
+    // Getters
+    public Long getId() {
+        return id;
+    }
+    
+    public BigDecimal getAmount() {
+        return amount;
+    }
+    
+    public String getDescription() {
+        return description;
+    }
+    
+    public TransactionType getType() {
+        return type;
+    }
+    
+    public LocalDateTime getDate() {
+        return date;
+    }
+    
+    public PersonView getPerson() {
+        return person;
+    }
+}
\ No newline at end of file
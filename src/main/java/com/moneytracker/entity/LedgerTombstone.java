@@ -0,0 +1,62 @@
+package com.moneytracker.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+
+// Marker left by a removed person or transaction, so delta sync can report the removal
+@Entity
+@Table(name = "ledger_tombstones",
+       indexes = @Index(name = "idx_tombstones_user_change", columnList = "user_id, change_version"))
+public class LedgerTombstone {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @JsonIgnore
+    private Long id;
+    
+    @Column(name = "user_id", nullable = false)
+    @JsonIgnore
+    private Long userId;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "entity_type", nullable = false, length = 20)
+    private TombstoneType type;
+    
+    @Column(name = "entity_id", nullable = false)
+    private Long entityId;
+    
+    @Column(name = "change_version", nullable = false)
+    private long changeVersion;
+    
+    // Default constructor
+    public LedgerTombstone() {}
+    
+    // Constructor with all fields
+    public LedgerTombstone(Long userId, TombstoneType type, Long entityId, long changeVersion) {
+        this.userId = userId;
+        this.type = type;
+        this.entityId = entityId;
+        this.changeVersion = changeVersion;
+    }
+    
+    // Getters
+    public Long getId() {
+        return id;
+    }
+    
+    public Long getUserId() {
+        return userId;
+    }
+    
+    public TombstoneType getType() {
+        return type;
+    }
+    
+    public Long getEntityId() {
+        return entityId;
+    }
+    
+    public long getChangeVersion() {
+        return changeVersion;
+    }
+}
\ No newline at end of file
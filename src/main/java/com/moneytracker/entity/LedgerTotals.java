@@ -0,0 +1,132 @@
+package com.moneytracker.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+
+// Per-user running totals, maintained incrementally by every ledger write
+// so the dashboard summary is a single-row read
+@Entity
+@Table(name = "ledger_totals")
+public class LedgerTotals {
+    
+    @Id
+    @Column(name = "user_id")
+    @JsonIgnore
+    private Long userId;
+    
+    // Sum of positive person balances (people who owe the user)
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal owedToUser = BigDecimal.ZERO;
+    
+    // Sum of negative person balances, as a positive amount (what the user owes)
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal userOwes = BigDecimal.ZERO;
+    
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal sentTotal = BigDecimal.ZERO;
+    
+    @Column(nullable = false)
+    private long sendCount;
+    
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal receivedTotal = BigDecimal.ZERO;
+    
+    @Column(nullable = false)
+    private long receiveCount;
+    
+    // Bumped by every change to the user's people or transactions; never goes backwards
+    @Column(name = "ledger_version", nullable = false)
+    @JsonIgnore
+    private long ledgerVersion;
+    
+    // Default constructor
+    public LedgerTotals() {}
+    
+    // Constructor with required fields
+    public LedgerTotals(Long userId) {
+        this.userId = userId;
+    }
+    
+    // Getters and Setters
+    public Long getUserId() {
+        return userId;
+    }
+    
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+    
+    public BigDecimal getOwedToUser() {
+        return owedToUser;
+    }
+    
+    public void setOwedToUser(BigDecimal owedToUser) {
+        this.owedToUser = owedToUser;
+    }
+    
+    public BigDecimal getUserOwes() {
+        return userOwes;
+    }
+    
+    public void setUserOwes(BigDecimal userOwes) {
+        this.userOwes = userOwes;
+    }
+    
+    public BigDecimal getSentTotal() {
+        return sentTotal;
+    }
+    
+    public void setSentTotal(BigDecimal sentTotal) {
+        this.sentTotal = sentTotal;
+    }
+    
+    public long getSendCount() {
+        return sendCount;
+    }
+    
+    public void setSendCount(long sendCount) {
+        this.sendCount = sendCount;
+    }
+    
+    public BigDecimal getReceivedTotal() {
+        return receivedTotal;
+    }
+    
+    public void setReceivedTotal(BigDecimal receivedTotal) {
+        this.receivedTotal = receivedTotal;
+    }
+    
+    public long getReceiveCount() {
+        return receiveCount;
+    }
+    
+    public void setReceiveCount(long receiveCount) {
+        this.receiveCount = receiveCount;
+    }
+    
+    public long getLedgerVersion() {
+        return ledgerVersion;
+    }
+    
+    public void setLedgerVersion(long ledgerVersion) {
+        this.ledgerVersion = ledgerVersion;
+    }
+    
+    // Net position: positive means the user is owed money overall
+    public BigDecimal getNet() {
+        return owedToUser.subtract(userOwes);
+    }
+    
+    @Override
+    public String toString() {
+        return "LedgerTotals{" +
+                "userId=" + userId +
+                ", owedToUser=" + owedToUser +
+                ", userOwes=" + userOwes +
+                ", sendCount=" + sendCount +
+                ", receiveCount=" + receiveCount +
+                '}';
+    }
+}
@@ -2,33 +2,75 @@ package com.moneytracker.entity;
 
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "people")
+@Table(name = "people",
+       uniqueConstraints = @UniqueConstraint(name = "uk_people_user_name", columnNames = {"user_id", "name", "deleted_id"}),
+       indexes = {
+           @Index(name = "idx_people_user_change", columnList = "user_id, change_version"),
+           @Index(name = "idx_people_deleted", columnList = "deleted")
+       })
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "people")
+@NaturalIdCache(region = "people-natural-id")
 public class Person {
     
+    // Pooled sequence (blocks of 50 ids) so inserts can be batched
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "people_seq")
+    @SequenceGenerator(name = "people_seq", sequenceName = "people_seq", allocationSize = 50)
     private Long id;
     
     @NotBlank(message = "Name is required")
+    @Size(max = 255, message = "Name must be at most 255 characters")
+    @NaturalId(mutable = true)
     @Column(nullable = false)
     private String name;
     
     @Column(precision = 10, scale = 2)
     private BigDecimal balance = BigDecimal.ZERO;
     
+    // Bumped by every balance write, so stale entity-level writes fail instead of losing updates
+    @Version
+    @JsonIgnore
+    private Long version;
+    
+    // Ledger version of the last write that changed this person (delta sync)
+    @Column(name = "change_version", nullable = false)
+    @JsonIgnore
+    private long changeVersion;
+    
+    // Set by a soft delete; the row and its transactions are hidden until the purge removes them
+    @Column(nullable = false)
+    @JsonIgnore
+    private boolean deleted;
+    
+    // 0 while the person is live, its own id once soft-deleted. Part of the natural id, so a
+    // deleted person keeps its name while (user, name) is free for a new person at once; the
+    // only part of the natural id that ever changes.
+    @NaturalId(mutable = true)
+    @Column(name = "deleted_id", nullable = false)
+    @JsonIgnore
+    private long deletedId;
+    
+    @NaturalId(mutable = true)
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     @JsonIgnore
     private User user;
     
-    @OneToMany(mappedBy = "person", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    // No cascade: removing a person must not load its history. Transactions are deleted with a
+    // bulk statement (or by the purge) before the person row.
+    @OneToMany(mappedBy = "person", fetch = FetchType.LAZY)
     @JsonIgnore
     private List<Transaction> transactions = new ArrayList<>();
     
@@ -67,6 +109,38 @@ public class Person {
         this.balance = balance;
     }
     
+    public Long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+    
+    public long getChangeVersion() {
+        return changeVersion;
+    }
+    
+    public void setChangeVersion(long changeVersion) {
+        this.changeVersion = changeVersion;
+    }
+    
+    public boolean isDeleted() {
+        return deleted;
+    }
+    
+    public void setDeleted(boolean deleted) {
+        this.deleted = deleted;
+    }
+    
+    public long getDeletedId() {
+        return deletedId;
+    }
+    
+    public void setDeletedId(long deletedId) {
+        this.deletedId = deletedId;
+    }
+    
     public User getUser() {
         return user;
     }
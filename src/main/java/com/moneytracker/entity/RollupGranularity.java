@@ -0,0 +1,15 @@
+package com.moneytracker.entity;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+public enum RollupGranularity {
+    DAY,    // One bucket per calendar day
+    MONTH;  // One bucket per calendar month, keyed by its first day
+    
+    // The bucket a transaction at the given time falls into
+    public LocalDate bucketOf(LocalDateTime date) {
+        LocalDate day = date.toLocalDate();
+        return this == DAY ? day : day.withDayOfMonth(1);
+    }
+}
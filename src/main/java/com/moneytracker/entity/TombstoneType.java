@@ -0,0 +1,6 @@
+package com.moneytracker.entity;
+
+public enum TombstoneType {
+    PERSON,       // Person deleted (its transactions went with it)
+    TRANSACTION   // Transaction reversed
+}
\ No newline at end of file
@@ -3,17 +3,88 @@ package com.moneytracker.entity;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.moneytracker.dto.StatementLine;
+import com.moneytracker.dto.TransactionExportRow;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "transactions")
+@Table(name = "transactions",
+       indexes = {
+           @Index(name = "idx_transactions_user_date", columnList = "user_id, date DESC, id DESC"),
+           @Index(name = "idx_transactions_person_date", columnList = "person_id, date DESC, id DESC"),
+           @Index(name = "idx_transactions_user_type_date", columnList = "user_id, type, date DESC, id DESC"),
+           @Index(name = "idx_transactions_user_change", columnList = "user_id, change_version")
+       })
+// The first chunk of an export (TransactionRepository.findFirstExportChunk), newest first. Native
+// so it can name the index: for a query that reads non-indexed columns H2 otherwise prefers the
+// FK index and sorts every row of the user before returning the first.
+@NamedNativeQuery(name = "Transaction.exportFirstChunk",
+                  query = "SELECT t.id, t.date, t.type, t.amount, t.person_id, t.description " +
+                          "FROM transactions t USE INDEX (idx_transactions_user_date) " +
+                          "WHERE t.user_id = :userId " +
+                          "ORDER BY t.user_id, t.date DESC, t.id DESC " +
+                          "FETCH FIRST :limit ROWS ONLY",
+                  resultSetMapping = "TransactionExportRow")
+// Each later chunk (TransactionRepository.findExportChunk): the same, strictly after the (date, id)
+// cursor of the previous chunk's last row
+@NamedNativeQuery(name = "Transaction.exportChunk",
+                  query = "SELECT t.id, t.date, t.type, t.amount, t.person_id, t.description " +
+                          "FROM transactions t USE INDEX (idx_transactions_user_date) " +
+                          "WHERE t.user_id = :userId AND t.date <= :date " +
+                          "AND (t.date < :date OR (t.date = :date AND t.id < :id)) " +
+                          "ORDER BY t.user_id, t.date DESC, t.id DESC " +
+                          "FETCH FIRST :limit ROWS ONLY",
+                  resultSetMapping = "TransactionExportRow")
+@SqlResultSetMapping(name = "TransactionExportRow",
+                     classes = @ConstructorResult(targetClass = TransactionExportRow.class,
+                                                  columns = {
+                                                      @ColumnResult(name = "id", type = Long.class),
+                                                      @ColumnResult(name = "date", type = LocalDateTime.class),
+                                                      @ColumnResult(name = "type", type = String.class),
+                                                      @ColumnResult(name = "amount", type = BigDecimal.class),
+                                                      @ColumnResult(name = "person_id", type = Long.class),
+                                                      @ColumnResult(name = "description", type = String.class)
+                                                  }))
+// One page of a person's statement (TransactionRepository.findStatementPage), newest first.
+// The inner query is a single range scan of idx_transactions_person_date that stops after :limit
+// rows; the window function runs over that page only. The redundant date <= :date gives the scan
+// its upper bound: with only the OR, H2 starts at the person's newest row on every page. Each
+// row's balance is the balance after the page's newest row (:anchor) minus the changes of the
+// newer rows on the page.
+@NamedNativeQuery(name = "Transaction.statementPage",
+                  query = "SELECT s.id, s.date, s.type, s.amount, s.description, " +
+                          "CAST(:anchor AS DECIMAL(19, 2)) - COALESCE(SUM(" +
+                          "CASE WHEN s.type = 'SEND' THEN s.amount ELSE -s.amount END) OVER (" +
+                          "ORDER BY s.date DESC, s.id DESC ROWS BETWEEN UNBOUNDED PRECEDING AND 1 PRECEDING), 0) " +
+                          "AS balance " +
+                          "FROM (SELECT t.id, t.date, t.type, t.amount, t.description " +
+                          "FROM transactions t USE INDEX (idx_transactions_person_date) " +
+                          "WHERE t.person_id = :personId AND t.date >= :from AND t.date <= :date " +
+                          "AND (t.date < :date OR (t.date = :date AND t.id < :id)) " +
+                          "ORDER BY t.person_id, t.date DESC, t.id DESC " +
+                          "FETCH FIRST :limit ROWS ONLY) s " +
+                          "ORDER BY s.date DESC, s.id DESC",
+                  resultSetMapping = "StatementLine")
+@SqlResultSetMapping(name = "StatementLine",
+                     classes = @ConstructorResult(targetClass = StatementLine.class,
+                                                  columns = {
+                                                      @ColumnResult(name = "id", type = Long.class),
+                                                      @ColumnResult(name = "date", type = LocalDateTime.class),
+                                                      @ColumnResult(name = "type", type = String.class),
+                                                      @ColumnResult(name = "amount", type = BigDecimal.class),
+                                                      @ColumnResult(name = "description", type = String.class),
+                                                      @ColumnResult(name = "balance", type = BigDecimal.class)
+                                                  }))
 public class Transaction {
     
+    // Pooled sequence (blocks of 50 ids) so inserts can be batched
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transactions_seq")
+    @SequenceGenerator(name = "transactions_seq", sequenceName = "transactions_seq", allocationSize = 50)
     private Long id;
     
     @NotNull(message = "Amount is required")
@@ -21,6 +92,7 @@ public class Transaction {
     @Column(nullable = false, precision = 10, scale = 2)
     private BigDecimal amount;
     
+    @Size(max = 500, message = "Description must be at most 500 characters")
     @Column(length = 500)
     private String description;
     
@@ -31,12 +103,17 @@ public class Transaction {
     @Column(nullable = false)
     private LocalDateTime date;
     
+    // Ledger version of the write that created this transaction (delta sync)
+    @Column(name = "change_version", nullable = false)
+    @JsonIgnore
+    private long changeVersion;
+    
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     @JsonIgnore
     private User user;
     
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "person_id", nullable = false)
     private Person person;
     
@@ -105,6 +182,14 @@ public class Transaction {
         this.date = date;
     }
     
+    public long getChangeVersion() {
+        return changeVersion;
+    }
+    
+    public void setChangeVersion(long changeVersion) {
+        this.changeVersion = changeVersion;
+    }
+    
     public User getUser() {
         return user;
     }
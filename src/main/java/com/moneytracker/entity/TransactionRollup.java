@@ -0,0 +1,114 @@
+package com.moneytracker.entity;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// Sum and count of one user's transactions with one person, per time bucket and type.
+// Rows are upserted by the write paths, so charts read buckets instead of the raw ledger.
+@Entity
+@Table(name = "transaction_rollups",
+       uniqueConstraints = @UniqueConstraint(name = "uk_rollups_key",
+               columnNames = {"user_id", "person_id", "granularity", "bucket", "type"}),
+       indexes = {
+           @Index(name = "idx_rollups_user_bucket", columnList = "user_id, granularity, bucket"),
+           @Index(name = "idx_rollups_person", columnList = "person_id")
+       })
+public class TransactionRollup {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+    
+    @Column(name = "person_id", nullable = false)
+    private Long personId;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private RollupGranularity granularity;
+    
+    @Column(nullable = false)
+    private LocalDate bucket;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private TransactionType type;
+    
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal total = BigDecimal.ZERO;
+    
+    @Column(name = "tx_count", nullable = false)
+    private long count;
+    
+    // Default constructor
+    public TransactionRollup() {}
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public Long getUserId() {
+        return userId;
+    }
+    
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+    
+    public Long getPersonId() {
+        return personId;
+    }
+    
+    public void setPersonId(Long personId) {
+        this.personId = personId;
+    }
+    
+    public RollupGranularity getGranularity() {
+        return granularity;
+    }
+    
+    public void setGranularity(RollupGranularity granularity) {
+        this.granularity = granularity;
+    }
+    
+    public LocalDate getBucket() {
+        return bucket;
+    }
+    
+    public void setBucket(LocalDate bucket) {
+        this.bucket = bucket;
+    }
+    
+    public TransactionType getType() {
+        return type;
+    }
+    
+    public void setType(TransactionType type) {
+        this.type = type;
+    }
+    
+    public BigDecimal getTotal() {
+        return total;
+    }
+    
+    public void setTotal(BigDecimal total) {
+        this.total = total;
+    }
+    
+    public long getCount() {
+        return count;
+    }
+    
+    public void setCount(long count) {
+        this.count = count;
+    }
+}
@@ -1,6 +1,13 @@
 package com.moneytracker.entity;
 
+import java.math.BigDecimal;
+
 public enum TransactionType {
     SEND,    // User sends money to person
-    RECEIVE  // User receives money from person
+    RECEIVE; // User receives money from person
+    
+    // Signed change a transaction of this type applies to the person's balance
+    public BigDecimal balanceDelta(BigDecimal amount) {
+        return this == SEND ? amount : amount.negate();
+    }
 }
\ No newline at end of file
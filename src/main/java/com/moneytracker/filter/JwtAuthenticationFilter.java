@@ -1,7 +1,11 @@
 package com.moneytracker.filter;
 
-import com.moneytracker.service.UserService;
+import com.moneytracker.dto.AuthenticatedUser;
 import com.moneytracker.util.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -15,7 +19,11 @@ import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
 
+// Authenticates from the token alone. It must not depend on UserService: the security config
+// that registers this filter also defines the PasswordEncoder UserService needs, and the cycle
+// stops startup.
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
     
@@ -23,7 +31,19 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private JwtUtil jwtUtil;
     
     @Autowired
-    private UserService userService;
+    private MeterRegistry meterRegistry;
+    
+    // Verification time per bearer token, cache lookups included, by outcome
+    private Timer validTimer;
+    private Timer invalidTimer;
+    
+    @PostConstruct
+    public void initMetrics() {
+        validTimer = Timer.builder("auth.jwt.verify").tag("result", "valid")
+                .description("Time spent verifying bearer tokens").register(meterRegistry);
+        invalidTimer = Timer.builder("auth.jwt.verify").tag("result", "invalid")
+                .description("Time spent verifying bearer tokens").register(meterRegistry);
+    }
     
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, 
@@ -31,27 +51,29 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         
         final String authorizationHeader = request.getHeader("Authorization");
         
-        String username = null;
-        String jwt = null;
+        Claims claims = null;
         
-        // Extract JWT token from header
+        // Extract JWT token from header and verify it once
         if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
-            jwt = authorizationHeader.substring(7);
-            try {
-                username = jwtUtil.extractUsername(jwt);
-            } catch (Exception e) {
-                logger.error("JWT token extraction failed: " + e.getMessage());
+            String jwt = authorizationHeader.substring(7);
+            long start = System.nanoTime();
+            claims = jwtUtil.verifyToken(jwt);
+            (claims != null ? validTimer : invalidTimer).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            if (claims == null) {
+                logger.error("JWT token validation failed");
             }
         }
         
-        // Validate token and set authentication
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            if (jwtUtil.validateToken(jwt, username)) {
-                UsernamePasswordAuthenticationToken authToken = 
-                    new UsernamePasswordAuthenticationToken(username, null, new ArrayList<>());
-                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                SecurityContextHolder.getContext().setAuthentication(authToken);
-            }
+        // Set authentication from the verified claims
+        if (claims != null && claims.getSubject() != null
+                && SecurityContextHolder.getContext().getAuthentication() == null) {
+            // Tokens issued before the id claim existed carry no id; controllers fall back to a lookup
+            AuthenticatedUser principal =
+                new AuthenticatedUser(claims.get(JwtUtil.USER_ID_CLAIM, Long.class), claims.getSubject());
+            UsernamePasswordAuthenticationToken authToken = 
+                new UsernamePasswordAuthenticationToken(principal, null, new ArrayList<>());
+            authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+            SecurityContextHolder.getContext().setAuthentication(authToken);
         }
         
         filterChain.doFilter(request, response);
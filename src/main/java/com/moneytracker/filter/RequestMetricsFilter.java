@@ -0,0 +1,69 @@
+package com.moneytracker.filter;
+
+import com.moneytracker.util.RequestStatistics;
+import com.moneytracker.util.SqlBudget;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.List;
+
+// Counts the database work of each request (see RequestStatistics) and records it per endpoint,
+// tagged with the same uri pattern as http.server.requests, then logs the request if it went
+// over its SQL budget. Work finished on an async dispatch, such as a streamed export, runs on
+// another thread and is not counted.
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RequestMetricsFilter extends OncePerRequestFilter {
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        RequestStatistics statistics = RequestStatistics.begin();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            RequestStatistics.end();
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+            record("hibernate.request.statements", "SQL statements per request", uri, statistics.getStatements());
+            record("jdbc.request.rows", "Result set rows read per request", uri, statistics.getRows());
+            record("hibernate.request.entity.loads", "Entities loaded per request", uri, statistics.getEntityLoads());
+            record("hibernate.request.collection.fetches", "Lazy collections initialized per request", uri,
+                    statistics.getCollectionFetches());
+            
+            SqlBudget budget = statistics.getBudget();
+            List<String> violations = budget != null ? budget.violations(statistics) : List.of();
+            if (!violations.isEmpty()) {
+                Counter.builder("sql.budget.exceeded")
+                        .description("Requests that went over their SQL budget")
+                        .tag("uri", uri)
+                        .register(meterRegistry)
+                        .increment();
+                logger.warn("SQL budget exceeded by " + budget.endpoint() + ": " + String.join("; ", violations));
+            }
+        }
+    }
+    
+    private void record(String name, String description, String uri, long value) {
+        DistributionSummary.builder(name)
+                .description(description)
+                .tag("uri", uri)
+                .register(meterRegistry)
+                .record(value);
+    }
+}
@@ -0,0 +1,71 @@
+package com.moneytracker.filter;
+
+import com.moneytracker.util.RequestStatistics;
+import com.moneytracker.util.SqlBudget;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Gives each request the SQL budget of its endpoint, once the handler (and so the uri pattern)
+// is known. The budget is checked as statements run and again by RequestMetricsFilter at the end.
+@Component
+public class SqlBudgetInterceptor implements HandlerInterceptor {
+    
+    @Value("${sql.budget.max-statements:25}")
+    private int maxStatements;
+    
+    @Value("${sql.budget.max-rows:0}")
+    private long maxRows;
+    
+    @Value("${sql.budget.repeat-threshold:10}")
+    private int repeatThreshold;
+    
+    @Value("${sql.budget.fail:false}")
+    private boolean fail;
+    
+    // uri-pattern:statements pairs; 0 turns every check off for that endpoint
+    @Value("${sql.budget.overrides:}")
+    private String overridesText;
+    
+    private final Map<String, Integer> overrides = new HashMap<>();
+    
+    @PostConstruct
+    public void parseOverrides() {
+        for (String entry : overridesText.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            int separator = entry.lastIndexOf(':');
+            if (separator < 0) {
+                throw new IllegalArgumentException("sql.budget.overrides entries must be pattern:statements, got '" +
+                        entry + "'");
+            }
+            overrides.put(entry.substring(0, separator).trim(), Integer.parseInt(entry.substring(separator + 1).trim()));
+        }
+    }
+    
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        RequestStatistics statistics = RequestStatistics.current();
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        if (statistics == null || pattern == null) {
+            return true;
+        }
+        
+        String endpoint = request.getMethod() + " " + pattern;
+        Integer override = overrides.get(pattern.toString());
+        if (override == null) {
+            statistics.setBudget(new SqlBudget(endpoint, maxStatements, maxRows, repeatThreshold, fail));
+        } else if (override > 0) {
+            statistics.setBudget(new SqlBudget(endpoint, override, maxRows, repeatThreshold, fail));
+        }
+        return true;
+    }
+}
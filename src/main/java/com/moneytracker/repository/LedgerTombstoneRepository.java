@@ -0,0 +1,21 @@
+package com.moneytracker.repository;
+
+import com.moneytracker.entity.LedgerTombstone;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface LedgerTombstoneRepository extends JpaRepository<LedgerTombstone, Long> {
+    
+    // Removals recorded in (since, upTo], oldest first
+    @Query("SELECT t FROM LedgerTombstone t " +
+           "WHERE t.userId = :userId AND t.changeVersion > :since AND t.changeVersion <= :upTo " +
+           "ORDER BY t.changeVersion")
+    List<LedgerTombstone> findChangedBetween(@Param("userId") Long userId,
+                                             @Param("since") long since,
+                                             @Param("upTo") long upTo);
+}
\ No newline at end of file
@@ -0,0 +1,79 @@
+package com.moneytracker.repository;
+
+import com.moneytracker.entity.LedgerTotals;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface LedgerTotalsRepository extends JpaRepository<LedgerTotals, Long> {
+    
+    // Add deltas to a user's totals row in place (0 if the row does not exist yet)
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE LedgerTotals t SET " +
+           "t.owedToUser = t.owedToUser + :owed, " +
+           "t.userOwes = t.userOwes + :owes, " +
+           "t.sentTotal = t.sentTotal + :sent, " +
+           "t.sendCount = t.sendCount + :sendCount, " +
+           "t.receivedTotal = t.receivedTotal + :received, " +
+           "t.receiveCount = t.receiveCount + :receiveCount " +
+           "WHERE t.userId = :userId")
+    int applyDelta(@Param("userId") Long userId,
+                   @Param("owed") BigDecimal owed,
+                   @Param("owes") BigDecimal owes,
+                   @Param("sent") BigDecimal sent,
+                   @Param("sendCount") long sendCount,
+                   @Param("received") BigDecimal received,
+                   @Param("receiveCount") long receiveCount);
+    
+    // Insert a user's empty totals row unless it exists, in one statement (the primary key keeps
+    // concurrent callers to one row; none of them reads first and inserts on a miss)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "ledger_totals"))
+    @Modifying(flushAutomatically = true)
+    @Query(value = "MERGE INTO ledger_totals t USING (SELECT CAST(:userId AS BIGINT) AS user_id) k " +
+                   "ON t.user_id = k.user_id " +
+                   "WHEN NOT MATCHED THEN INSERT (user_id, owed_to_user, user_owes, sent_total, send_count, " +
+                   "received_total, receive_count, ledger_version) VALUES (k.user_id, 0, 0, 0, 0, 0, 0, 0)",
+           nativeQuery = true)
+    int createIfMissing(@Param("userId") Long userId);
+    
+    // Bump a user's ledger version and return the new value (empty if the row does not exist yet).
+    // The UPDATE locks the user's totals row until commit, so versions are handed out in commit order.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "ledger_totals"))
+    @Query(value = "SELECT ledger_version FROM FINAL TABLE (" +
+                   "UPDATE ledger_totals SET ledger_version = ledger_version + 1 WHERE user_id = :userId)",
+           nativeQuery = true)
+    Optional<Long> nextLedgerVersion(@Param("userId") Long userId);
+    
+    // Current ledger version of a user (primary-key lookup; never reads the transactions table)
+    @Query("SELECT t.ledgerVersion FROM LedgerTotals t WHERE t.userId = :userId")
+    Optional<Long> findLedgerVersion(@Param("userId") Long userId);
+    
+    // Per-type sums and counts of a user's transactions: rows of (type, sum, count).
+    // Transactions of soft-deleted people are left out here and below; they are awaiting the purge.
+    @Query("SELECT t.type, COALESCE(SUM(t.amount), 0), COUNT(t) FROM Transaction t " +
+           "WHERE t.user.id = :userId AND t.person.deleted = false GROUP BY t.type")
+    List<Object[]> sumByTypeForUser(@Param("userId") Long userId);
+    
+    // Per-type sums and counts of one person's transactions: rows of (type, sum, count).
+    // Read from the monthly rollups, so the cost follows the months of history, not its rows.
+    @Query("SELECT r.type, COALESCE(SUM(r.total), 0), COALESCE(SUM(r.count), 0) FROM TransactionRollup r " +
+           "WHERE r.personId = :personId AND r.granularity = com.moneytracker.entity.RollupGranularity.MONTH " +
+           "GROUP BY r.type")
+    List<Object[]> sumByTypeForPerson(@Param("personId") Long personId);
+    
+    // Each person's balance recomputed from the transactions table
+    @Query("SELECT SUM(CASE WHEN t.type = com.moneytracker.entity.TransactionType.SEND " +
+           "THEN t.amount ELSE -t.amount END) FROM Transaction t " +
+           "WHERE t.user.id = :userId AND t.person.deleted = false GROUP BY t.person.id")
+    List<BigDecimal> balancesByPersonForUser(@Param("userId") Long userId);
+}
\ No newline at end of file
@@ -1,25 +1,52 @@
 package com.moneytracker.repository;
 
+import com.moneytracker.dto.PersonView;
 import com.moneytracker.entity.Person;
 import com.moneytracker.entity.User;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface PersonRepository extends JpaRepository<Person, Long> {
+public interface PersonRepository extends JpaRepository<Person, Long>, PersonRepositoryCustom {
     
-    // Find all people for a specific user
-    List<Person> findByUserOrderByNameAsc(User user);
+    // Find all live people for a specific user (query cache; invalidated whenever a people row changes)
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "people-by-user")
+    })
+    List<Person> findByUserAndDeletedFalseOrderByNameAsc(User user);
     
-    // Find person by name and user
-    Optional<Person> findByNameAndUser(String name, User user);
+    // Views of a user's people created or changed in (since, upTo]
+    @Query("SELECT new com.moneytracker.dto.PersonView(p.id, p.name, p.balance) " +
+           "FROM Person p WHERE p.user = :user AND p.changeVersion > :since AND p.changeVersion <= :upTo " +
+           "AND p.deleted = false ORDER BY p.name")
+    List<PersonView> findViewsChangedBetween(@Param("user") User user,
+                                             @Param("since") long since,
+                                             @Param("upTo") long upTo);
     
-    // Check if person exists for user
-    boolean existsByNameAndUser(String name, User user);
+    // Find a live person by name and user, locking its row until the transaction ends
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<Person> findForUpdateByNameAndUserAndDeletedFalse(String name, User user);
     
-    // Delete person by name and user
-    void deleteByNameAndUser(String name, User user);
+    // Check if a live person exists for user (soft-deleted people keep their names)
+    boolean existsByNameAndUserAndDeletedFalse(String name, User user);
+    
+    // Read the current balance (inside a write transaction this sees our own locked row)
+    @Query("SELECT p.balance FROM Person p WHERE p.id = :id")
+    BigDecimal findBalanceById(@Param("id") Long id);
+    
+    // Soft-deleted people still waiting for the purge
+    @Query("SELECT p.id FROM Person p WHERE p.deleted = true")
+    List<Long> findDeletedIds();
 }
\ No newline at end of file
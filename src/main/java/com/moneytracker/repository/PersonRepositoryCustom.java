@@ -0,0 +1,27 @@
+package com.moneytracker.repository;
+
+import com.moneytracker.entity.Person;
+import com.moneytracker.entity.User;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+// Person operations that work with the second-level cache directly
+public interface PersonRepositoryCustom {
+    
+    // Find a live person by (user, name); served from the natural-id and entity caches when warm.
+    // Soft-deleted people are not returned.
+    Optional<Person> findByNaturalId(User user, String name);
+    
+    // Apply a balance change to the person and stamp it with the ledger version of the change,
+    // without loading its transactions. The person's row is locked (SELECT ... FOR UPDATE) and
+    // re-read, so concurrent writers are serialized per person, and the change is flushed as an
+    // entity update that invalidates only this person's cache entry. Afterwards the managed person
+    // carries the new balance. Returns 0 if the person is gone or soft-deleted.
+    int applyBalanceDelta(Long id, BigDecimal delta, long changeVersion);
+    
+    // Flag the person as deleted, leaving its transactions for the background purge. The name is
+    // kept; its (user, name) key is free for a new person at once. Returns 0 if the person is gone
+    // or already deleted.
+    int markDeleted(Long id, long changeVersion);
+}
\ No newline at end of file
@@ -0,0 +1,69 @@
+package com.moneytracker.repository;
+
+import com.moneytracker.entity.Person;
+import com.moneytracker.entity.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+public class PersonRepositoryImpl implements PersonRepositoryCustom {
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Override
+    public Optional<Person> findByNaturalId(User user, String name) {
+        return entityManager.unwrap(Session.class)
+                .byNaturalId(Person.class)
+                .using("user", user)
+                .using("name", name)
+                .using("deletedId", 0L)
+                .loadOptional()
+                .filter(person -> !person.isDeleted());
+    }
+    
+    @Override
+    public int applyBalanceDelta(Long id, BigDecimal delta, long changeVersion) {
+        Person person = lockForUpdate(id);
+        if (person == null || person.isDeleted()) {
+            return 0;
+        }
+        person.setBalance(person.getBalance().add(delta));
+        person.setChangeVersion(changeVersion);
+        // An entity update: Hibernate replaces only this person's entry in the second-level cache
+        // when the transaction commits; other people and the natural-id region are untouched
+        entityManager.flush();
+        return 1;
+    }
+    
+    // Lock the person's row and read its current state. A managed copy may have come from the
+    // second-level cache before the lock was taken, so it is re-read rather than version-checked.
+    private Person lockForUpdate(Long id) {
+        entityManager.flush();
+        Person managed = entityManager.find(Person.class, id);
+        if (managed == null) {
+            return null;
+        }
+        entityManager.refresh(managed, LockModeType.PESSIMISTIC_WRITE);
+        return managed;
+    }
+    
+    @Override
+    public int markDeleted(Long id, long changeVersion) {
+        Person person = lockForUpdate(id);
+        if (person == null || person.isDeleted()) {
+            return 0;
+        }
+        // The name stays; moving deletedId off 0 changes the natural id, which Hibernate updates
+        // in the natural-id cache along with this person's entry
+        person.setDeleted(true);
+        person.setDeletedId(id);
+        person.setChangeVersion(changeVersion);
+        entityManager.flush();
+        return 1;
+    }
+}
\ No newline at end of file
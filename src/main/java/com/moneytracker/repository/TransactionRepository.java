@@ -1,15 +1,28 @@
 package com.moneytracker.repository;
 
+import com.moneytracker.dto.StatementLine;
+import com.moneytracker.dto.TransactionExportRow;
+import com.moneytracker.dto.TransactionView;
 import com.moneytracker.entity.Person;
 import com.moneytracker.entity.Transaction;
 import com.moneytracker.entity.User;
+import com.moneytracker.util.PageCursor;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
-public interface TransactionRepository extends JpaRepository<Transaction, Long> {
+public interface TransactionRepository extends JpaRepository<Transaction, Long>, TransactionRepositoryCustom {
     
     // Find all transactions for a specific user, ordered by date descending
     List<Transaction> findByUserOrderByDateDesc(User user);
@@ -19,4 +32,115 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
     
     // Find transactions for a specific user and person
     List<Transaction> findByUserAndPersonOrderByDateDesc(User user, Person person);
+    
+    // Keys of the first page of a user's transactions, newest first (keyset pagination).
+    // Single-table and led by the user column so H2 walks idx_transactions_user_date in order;
+    // with a join in the same query it picks the FK index instead and sorts every row of the user.
+    @Query("SELECT new com.moneytracker.util.PageCursor(t.date, t.id) FROM Transaction t " +
+           "WHERE t.user = :user " +
+           "ORDER BY t.user.id, t.date DESC, t.id DESC")
+    List<PageCursor> findFirstPageKeys(@Param("user") User user, Pageable pageable);
+    
+    // Keys of the next page of a user's transactions, strictly after the (date, id) cursor
+    @Query("SELECT new com.moneytracker.util.PageCursor(t.date, t.id) FROM Transaction t " +
+           "WHERE t.user = :user " +
+           "AND (t.date < :date OR (t.date = :date AND t.id < :id)) " +
+           "ORDER BY t.user.id, t.date DESC, t.id DESC")
+    List<PageCursor> findPageKeysAfter(@Param("user") User user,
+                                       @Param("date") LocalDateTime date,
+                                       @Param("id") Long id,
+                                       Pageable pageable);
+    
+    // Views of a page of transactions by primary key, newest first (one join, only the listed columns).
+    // Views of soft-deleted people's transactions are left out here and in the queries below.
+    @Query("SELECT new com.moneytracker.dto.TransactionView(t.id, t.amount, t.description, t.type, t.date, " +
+           "p.id, p.name, p.balance) " +
+           "FROM Transaction t JOIN t.person p " +
+           "WHERE t.id IN :ids AND p.deleted = false " +
+           "ORDER BY t.date DESC, t.id DESC")
+    List<TransactionView> findViewsByIdIn(@Param("ids") List<Long> ids);
+    
+    // Views of all of a user's transactions, newest first
+    @Query("SELECT new com.moneytracker.dto.TransactionView(t.id, t.amount, t.description, t.type, t.date, " +
+           "p.id, p.name, p.balance) " +
+           "FROM Transaction t JOIN t.person p " +
+           "WHERE t.user = :user AND p.deleted = false " +
+           "ORDER BY t.date DESC, t.id DESC")
+    List<TransactionView> findViewsByUser(@Param("user") User user);
+    
+    // Views of a user's transactions created in (since, upTo], oldest change first
+    @Query("SELECT new com.moneytracker.dto.TransactionView(t.id, t.amount, t.description, t.type, t.date, " +
+           "p.id, p.name, p.balance) " +
+           "FROM Transaction t JOIN t.person p " +
+           "WHERE t.user = :user AND t.changeVersion > :since AND t.changeVersion <= :upTo " +
+           "AND p.deleted = false ORDER BY t.changeVersion, t.id")
+    List<TransactionView> findViewsChangedBetween(@Param("user") User user,
+                                                  @Param("since") long since,
+                                                  @Param("upTo") long upTo);
+    
+    // Up to limit of a user's newest transactions (the first export chunk). The SQL is the
+    // Transaction.exportFirstChunk native query. The person is left as its id and resolved by the
+    // caller.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query(name = "Transaction.exportFirstChunk", nativeQuery = true)
+    List<TransactionExportRow> findFirstExportChunk(@Param("userId") Long userId,
+                                                    @Param("limit") int limit);
+    
+    // Up to limit of a user's transactions strictly after the (date, id) cursor, newest first (each
+    // later export chunk). The SQL is the Transaction.exportChunk native query.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query(name = "Transaction.exportChunk", nativeQuery = true)
+    List<TransactionExportRow> findExportChunk(@Param("userId") Long userId,
+                                               @Param("date") LocalDateTime date,
+                                               @Param("id") Long id,
+                                               @Param("limit") int limit);
+    
+    // One page of a person's statement in [from, ...), newest first, strictly after the (date, id)
+    // cursor. Balances count down from anchor, the balance right after the page's first row.
+    // The SQL is the Transaction.statementPage native query.
+    @Query(name = "Transaction.statementPage", nativeQuery = true)
+    List<StatementLine> findStatementPage(@Param("personId") Long personId,
+                                          @Param("from") LocalDateTime from,
+                                          @Param("date") LocalDateTime date,
+                                          @Param("id") Long id,
+                                          @Param("anchor") BigDecimal anchor,
+                                          @Param("limit") int limit);
+    
+    // Delete a transaction by id, returning how many rows were removed (0 if another request got there first)
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM Transaction t WHERE t.id = :id")
+    int deleteByIdReturningCount(@Param("id") Long id);
+    
+    // Delete all of a person's transactions in one statement, without loading them
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM Transaction t WHERE t.person.id = :personId")
+    int deleteByPersonId(@Param("personId") Long personId);
+    
+    // Delete at most limit of a person's transactions (for the purge). The query space keeps
+    // Hibernate from dropping every second-level cache region after the native statement.
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "transactions"))
+    @Query(value = "DELETE FROM transactions WHERE person_id = :personId FETCH FIRST :limit ROWS ONLY",
+           nativeQuery = true)
+    int deleteBatchByPersonId(@Param("personId") Long personId, @Param("limit") int limit);
+    
+    // Trigram rows of transactions' descriptions, matching the backfill in V8
+    String INDEX_DESCRIPTIONS = "INSERT INTO transaction_trigrams (user_id, gram, date, transaction_id) " +
+                                "SELECT DISTINCT t.user_id, SUBSTRING(LOWER(t.description), r.X, 3), t.date, t.id " +
+                                "FROM transactions t JOIN SYSTEM_RANGE(1, 498) r " +
+                                "ON r.X <= CHAR_LENGTH(t.description) - 2 ";
+    
+    // Add one transaction's description to the text search index
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "transaction_trigrams"))
+    @Query(value = INDEX_DESCRIPTIONS + "WHERE t.id = :id AND t.description IS NOT NULL", nativeQuery = true)
+    int indexDescription(@Param("id") Long id);
+    
+    // Add the descriptions of all of a user's transactions written at one ledger version, such as
+    // an import, with a single statement through idx_transactions_user_change
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "transaction_trigrams"))
+    @Query(value = INDEX_DESCRIPTIONS + "WHERE t.user_id = :userId AND t.change_version = :version " +
+                   "AND t.description IS NOT NULL", nativeQuery = true)
+    int indexDescriptions(@Param("userId") Long userId, @Param("version") long version);
 }
\ No newline at end of file
@@ -0,0 +1,32 @@
+package com.moneytracker.repository;
+
+import com.moneytracker.dto.TextMatch;
+import com.moneytracker.entity.Transaction;
+import com.moneytracker.util.PageCursor;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+// Transaction queries built at runtime
+public interface TransactionRepositoryCustom {
+    
+    // (date, id) keys of the transactions matching spec, ordered by the given leading attributes
+    // ("user", "person", "type"; ascending) and then by date and id in the given direction.
+    // Only the keys are selected so an index on the leading attributes, date and id covers the
+    // query and returns rows in order. Fails with a query timeout after timeoutSeconds.
+    List<PageCursor> findKeys(Specification<Transaction> spec, List<String> leading, boolean descending,
+                              int limit, int timeoutSeconds);
+    
+    // Number of a user's transactions whose description contains each trigram, counting no
+    // further than cap per trigram; every trigram is in the result, unmatched ones with 0.
+    // One statement for all of them.
+    Map<String, Integer> countTrigrams(Long userId, Collection<String> grams, int cap);
+    
+    // (date, id) keys of a user's transactions, newest first and strictly after the cursor (if
+    // any), found by walking the trigram's index rows and keeping the transactions whose
+    // description matches every term. Fails with a query timeout after timeoutSeconds.
+    List<PageCursor> findKeysByDescription(Long userId, String gram, List<String> terms, TextMatch match,
+                                           PageCursor after, int limit, int timeoutSeconds);
+}
\ No newline at end of file
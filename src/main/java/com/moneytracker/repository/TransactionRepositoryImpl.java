@@ -0,0 +1,124 @@
+package com.moneytracker.repository;
+
+import com.moneytracker.dto.TextMatch;
+import com.moneytracker.entity.Transaction;
+import com.moneytracker.util.PageCursor;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.query.NativeQuery;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class TransactionRepositoryImpl implements TransactionRepositoryCustom {
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Override
+    public List<PageCursor> findKeys(Specification<Transaction> spec, List<String> leading, boolean descending,
+                                     int limit, int timeoutSeconds) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<PageCursor> query = cb.createQuery(PageCursor.class);
+        Root<Transaction> root = query.from(Transaction.class);
+        query.select(cb.construct(PageCursor.class, root.get("date"), root.get("id")));
+        query.where(spec.toPredicate(root, query, cb));
+        
+        // H2 only walks an index in ORDER BY order when the ORDER BY repeats the index columns
+        // exactly, equality-filtered leading columns included. Associations are compared by
+        // their foreign key column, which needs no join.
+        List<Order> orders = new ArrayList<>();
+        for (String attribute : leading) {
+            orders.add(cb.asc(attribute.equals("type") ? root.get(attribute) : root.get(attribute).get("id")));
+        }
+        orders.add(descending ? cb.desc(root.get("date")) : cb.asc(root.get("date")));
+        orders.add(descending ? cb.desc(root.get("id")) : cb.asc(root.get("id")));
+        query.orderBy(orders);
+        
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .setHint(HibernateHints.HINT_TIMEOUT, timeoutSeconds)
+                .getResultList();
+    }
+    
+    @Override
+    @SuppressWarnings("unchecked")
+    public Map<String, Integer> countTrigrams(Long userId, Collection<String> grams, int cap) {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        if (grams.isEmpty()) {
+            return counts;
+        }
+        // One capped branch per trigram: each is a range scan of idx_trigrams_user_gram_date that
+        // stops after cap rows, which a single GROUP BY over all the trigrams' rows could not do
+        StringBuilder sql = new StringBuilder();
+        List<Object> parameters = new ArrayList<>();
+        for (String gram : grams) {
+            if (!parameters.isEmpty()) {
+                sql.append(" UNION ALL ");
+            }
+            sql.append("SELECT CAST(? AS VARCHAR(3)) AS gram, COUNT(*) AS gram_count " +
+                       "FROM (SELECT 1 FROM transaction_trigrams WHERE user_id = ? AND gram = ? " +
+                       "FETCH FIRST ? ROWS ONLY)");
+            parameters.addAll(List.of(gram, userId, gram, cap));
+            counts.put(gram, 0);
+        }
+        
+        Query query = entityManager.createNativeQuery(sql.toString());
+        for (int i = 0; i < parameters.size(); i++) {
+            query.setParameter(i + 1, parameters.get(i));
+        }
+        for (Object[] row : (List<Object[]>) query.getResultList()) {
+            counts.put((String) row[0], ((Number) row[1]).intValue());
+        }
+        return counts;
+    }
+    
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<PageCursor> findKeysByDescription(Long userId, String gram, List<String> terms, TextMatch match,
+                                                  PageCursor after, int limit, int timeoutSeconds) {
+        // The ORDER BY repeats idx_trigrams_user_gram_date so H2 walks it in order and stops
+        // after the limit; each candidate is checked with a primary key lookup
+        StringBuilder sql = new StringBuilder(
+                "SELECT g.date, g.transaction_id FROM transaction_trigrams g " +
+                "WHERE g.user_id = ? AND g.gram = ? ");
+        List<Object> parameters = new ArrayList<>(List.of(userId, gram));
+        if (after != null) {
+            sql.append("AND g.date <= ? AND (g.date < ? OR (g.date = ? AND g.transaction_id < ?)) ");
+            parameters.addAll(List.of(after.getDate(), after.getDate(), after.getDate(), after.getId()));
+        }
+        sql.append("AND EXISTS (SELECT 1 FROM transactions t WHERE t.id = g.transaction_id");
+        for (String term : terms) {
+            sql.append(" AND ").append(match.condition());
+            parameters.add(match.parameter(term));
+        }
+        sql.append(") ORDER BY g.user_id, g.gram, g.date DESC, g.transaction_id DESC FETCH FIRST ? ROWS ONLY");
+        parameters.add(limit);
+        
+        NativeQuery<Object[]> query = entityManager.createNativeQuery(sql.toString())
+                .unwrap(NativeQuery.class)
+                .addScalar("date", LocalDateTime.class)
+                .addScalar("transaction_id", Long.class);
+        for (int i = 0; i < parameters.size(); i++) {
+            query.setParameter(i + 1, parameters.get(i));
+        }
+        query.setHint(HibernateHints.HINT_TIMEOUT, timeoutSeconds);
+        
+        List<PageCursor> keys = new ArrayList<>();
+        for (Object[] row : query.getResultList()) {
+            keys.add(new PageCursor((LocalDateTime) row[0], (Long) row[1]));
+        }
+        return keys;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,136 @@
+package com.moneytracker.repository;
+
+import com.moneytracker.dto.RollupPoint;
+import com.moneytracker.entity.RollupGranularity;
+import com.moneytracker.entity.TransactionRollup;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface TransactionRollupRepository extends JpaRepository<TransactionRollup, Long> {
+    
+    // Add amount/count to one bucket, creating it if needed. Native statements name the table they
+    // touch; without it Hibernate would empty every second-level cache region after each one.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "transaction_rollups"))
+    @Modifying(flushAutomatically = true)
+    @Query(value = "MERGE INTO transaction_rollups r " +
+                   "USING (SELECT CAST(:userId AS BIGINT) AS user_id, CAST(:personId AS BIGINT) AS person_id, " +
+                   "CAST(:granularity AS VARCHAR(10)) AS granularity, CAST(:bucket AS DATE) AS bucket, " +
+                   "CAST(:type AS VARCHAR(255)) AS type) k " +
+                   "ON r.user_id = k.user_id AND r.person_id = k.person_id AND r.granularity = k.granularity " +
+                   "AND r.bucket = k.bucket AND r.type = k.type " +
+                   "WHEN MATCHED THEN UPDATE SET r.total = r.total + :amount, r.tx_count = r.tx_count + :count " +
+                   "WHEN NOT MATCHED THEN INSERT (user_id, person_id, granularity, bucket, type, total, tx_count) " +
+                   "VALUES (k.user_id, k.person_id, k.granularity, k.bucket, k.type, :amount, :count)",
+           nativeQuery = true)
+    int addToBucket(@Param("userId") Long userId,
+                    @Param("personId") Long personId,
+                    @Param("granularity") String granularity,
+                    @Param("bucket") LocalDate bucket,
+                    @Param("type") String type,
+                    @Param("amount") BigDecimal amount,
+                    @Param("count") long count);
+    
+    // Add the transactions written at one ledger version (a bulk import) to their daily or monthly
+    // buckets, creating buckets as needed: one set-based MERGE per granularity over the
+    // (user_id, change_version) index, so the cost follows the rows of the change, not the history.
+    // Source rows are (user_id, person_id, granularity, bucket, type, total, tx_count).
+    String MERGE_INTO_BUCKETS = "MERGE INTO transaction_rollups r USING (";
+    String MERGE_INTO_BUCKETS_ON = ") k " +
+                                   "ON r.user_id = k.user_id AND r.person_id = k.person_id " +
+                                   "AND r.granularity = k.granularity AND r.bucket = k.bucket AND r.type = k.type " +
+                                   "WHEN MATCHED THEN UPDATE SET r.total = r.total + k.total, " +
+                                   "r.tx_count = r.tx_count + k.tx_count " +
+                                   "WHEN NOT MATCHED THEN INSERT (user_id, person_id, granularity, bucket, type, total, tx_count) " +
+                                   "VALUES (k.user_id, k.person_id, k.granularity, k.bucket, k.type, k.total, k.tx_count)";
+    
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "transaction_rollups"))
+    @Modifying(flushAutomatically = true)
+    @Query(value = MERGE_INTO_BUCKETS +
+                   "SELECT user_id, person_id, CAST('DAY' AS VARCHAR(10)) AS granularity, " +
+                   "CAST(date AS DATE) AS bucket, type, SUM(amount) AS total, COUNT(*) AS tx_count " +
+                   "FROM transactions WHERE user_id = :userId AND change_version = :version " +
+                   "GROUP BY user_id, person_id, CAST(date AS DATE), type" +
+                   MERGE_INTO_BUCKETS_ON,
+           nativeQuery = true)
+    int addVersionToDaily(@Param("userId") Long userId, @Param("version") long version);
+    
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "transaction_rollups"))
+    @Modifying(flushAutomatically = true)
+    @Query(value = MERGE_INTO_BUCKETS +
+                   "SELECT user_id, person_id, CAST('MONTH' AS VARCHAR(10)) AS granularity, " +
+                   "CAST(DATE_TRUNC('MONTH', date) AS DATE) AS bucket, type, SUM(amount) AS total, " +
+                   "COUNT(*) AS tx_count " +
+                   "FROM transactions WHERE user_id = :userId AND change_version = :version " +
+                   "GROUP BY user_id, person_id, CAST(DATE_TRUNC('MONTH', date) AS DATE), type" +
+                   MERGE_INTO_BUCKETS_ON,
+           nativeQuery = true)
+    int addVersionToMonthly(@Param("userId") Long userId, @Param("version") long version);
+    
+    // Buckets of one granularity in [from, to], optionally for a single person
+    @Query("SELECT new com.moneytracker.dto.RollupPoint(p.name, r.bucket, r.type, r.total, r.count) " +
+           "FROM TransactionRollup r JOIN Person p ON p.id = r.personId " +
+           "WHERE r.userId = :userId AND r.granularity = :granularity " +
+           "AND r.bucket BETWEEN :from AND :to " +
+           "AND (:personId IS NULL OR r.personId = :personId) AND r.count > 0 " +
+           "ORDER BY r.bucket, p.name, r.type")
+    List<RollupPoint> findRange(@Param("userId") Long userId,
+                                @Param("granularity") RollupGranularity granularity,
+                                @Param("from") LocalDate from,
+                                @Param("to") LocalDate to,
+                                @Param("personId") Long personId);
+    
+    // A person's balance at the end of the given day: monthly buckets before the day's month plus
+    // the daily buckets of that month up to the day. Bounded by the person's buckets, not rows.
+    @Query("SELECT COALESCE(SUM(CASE WHEN r.type = com.moneytracker.entity.TransactionType.SEND " +
+           "THEN r.total ELSE -r.total END), 0) FROM TransactionRollup r " +
+           "WHERE r.personId = :personId AND (" +
+           "(r.granularity = com.moneytracker.entity.RollupGranularity.MONTH AND r.bucket < :monthStart) OR " +
+           "(r.granularity = com.moneytracker.entity.RollupGranularity.DAY AND r.bucket >= :monthStart " +
+           "AND r.bucket <= :day))")
+    BigDecimal balanceAtEndOf(@Param("personId") Long personId,
+                              @Param("monthStart") LocalDate monthStart,
+                              @Param("day") LocalDate day);
+    
+    // Drop every bucket of a person
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM TransactionRollup r WHERE r.personId = :personId")
+    int deleteByPersonId(@Param("personId") Long personId);
+    
+    // Drop every bucket of a user
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM TransactionRollup r WHERE r.userId = :userId")
+    int deleteByUserId(@Param("userId") Long userId);
+    
+    // Recompute a user's daily buckets from the transactions table, skipping soft-deleted people
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "transaction_rollups"))
+    @Modifying(flushAutomatically = true)
+    @Query(value = "INSERT INTO transaction_rollups (user_id, person_id, granularity, bucket, type, total, tx_count) " +
+                   "SELECT user_id, person_id, 'DAY', CAST(date AS DATE), type, SUM(amount), COUNT(*) " +
+                   "FROM transactions WHERE user_id = :userId " +
+                   "AND person_id NOT IN (SELECT id FROM people WHERE user_id = :userId AND deleted) " +
+                   "GROUP BY user_id, person_id, CAST(date AS DATE), type",
+           nativeQuery = true)
+    int rebuildDaily(@Param("userId") Long userId);
+    
+    // Recompute a user's monthly buckets from its daily buckets
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "transaction_rollups"))
+    @Modifying(flushAutomatically = true)
+    @Query(value = "INSERT INTO transaction_rollups (user_id, person_id, granularity, bucket, type, total, tx_count) " +
+                   "SELECT user_id, person_id, 'MONTH', CAST(DATE_TRUNC('MONTH', bucket) AS DATE), type, " +
+                   "SUM(total), SUM(tx_count) " +
+                   "FROM transaction_rollups WHERE user_id = :userId AND granularity = 'DAY' " +
+                   "GROUP BY user_id, person_id, CAST(DATE_TRUNC('MONTH', bucket) AS DATE), type",
+           nativeQuery = true)
+    int rebuildMonthly(@Param("userId") Long userId);
+}
\ No newline at end of file
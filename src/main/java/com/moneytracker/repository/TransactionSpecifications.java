@@ -0,0 +1,64 @@
+package com.moneytracker.repository;
+
+import com.moneytracker.entity.Person;
+import com.moneytracker.entity.Transaction;
+import com.moneytracker.entity.TransactionType;
+import com.moneytracker.entity.User;
+import com.moneytracker.util.PageCursor;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Building blocks for transaction search; each compares a column of the transactions table
+// directly, so none of them adds a join
+public final class TransactionSpecifications {
+    
+    private TransactionSpecifications() {}
+    
+    public static Specification<Transaction> ofUser(User user) {
+        return (root, query, cb) -> cb.equal(root.get("user"), user);
+    }
+    
+    public static Specification<Transaction> withPerson(Person person) {
+        return (root, query, cb) -> cb.equal(root.get("person"), person);
+    }
+    
+    public static Specification<Transaction> ofType(TransactionType type) {
+        return (root, query, cb) -> cb.equal(root.get("type"), type);
+    }
+    
+    public static Specification<Transaction> amountAtLeast(BigDecimal min) {
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("amount"), min);
+    }
+    
+    public static Specification<Transaction> amountAtMost(BigDecimal max) {
+        return (root, query, cb) -> cb.lessThanOrEqualTo(root.get("amount"), max);
+    }
+    
+    // Date in [from, until)
+    public static Specification<Transaction> dateBetween(LocalDateTime from, LocalDateTime until) {
+        return (root, query, cb) -> cb.and(
+                cb.greaterThanOrEqualTo(root.get("date"), from),
+                cb.lessThan(root.get("date"), until));
+    }
+    
+    // Strictly after the cursor in (date, id) order. The plain date bound is redundant but gives
+    // H2 an index range to start from; with only the OR it reads from the start of the range.
+    public static Specification<Transaction> after(PageCursor cursor, boolean descending) {
+        return (root, query, cb) -> {
+            if (descending) {
+                return cb.and(
+                        cb.lessThanOrEqualTo(root.get("date"), cursor.getDate()),
+                        cb.or(cb.lessThan(root.get("date"), cursor.getDate()),
+                              cb.and(cb.equal(root.get("date"), cursor.getDate()),
+                                     cb.lessThan(root.get("id"), cursor.getId()))));
+            }
+            return cb.and(
+                    cb.greaterThanOrEqualTo(root.get("date"), cursor.getDate()),
+                    cb.or(cb.greaterThan(root.get("date"), cursor.getDate()),
+                          cb.and(cb.equal(root.get("date"), cursor.getDate()),
+                                 cb.greaterThan(root.get("id"), cursor.getId()))));
+        };
+    }
+}
\ No newline at end of file
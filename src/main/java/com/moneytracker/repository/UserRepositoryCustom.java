@@ -0,0 +1,12 @@
+package com.moneytracker.repository;
+
+import com.moneytracker.entity.User;
+
+import java.util.Optional;
+
+// User operations that work with the second-level cache directly
+public interface UserRepositoryCustom {
+    
+    // Find user by its natural id (username); served from the natural-id and entity caches when warm
+    Optional<User> findByNaturalId(String username);
+}
\ No newline at end of file
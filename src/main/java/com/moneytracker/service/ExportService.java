@@ -0,0 +1,208 @@
+package com.moneytracker.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.moneytracker.dto.ExportFormat;
+import com.moneytracker.dto.TransactionExportRow;
+import com.moneytracker.entity.Person;
+import com.moneytracker.entity.User;
+import com.moneytracker.repository.PersonRepository;
+import com.moneytracker.repository.TransactionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+// No class-level transaction: the export is written to the client as it is read, and a slow
+// client must not keep a connection (or a cursor) open for the whole download. Each chunk is one
+// repository query, whose connection is back in the pool before the chunk is written out.
+@Service
+public class ExportService {
+    
+    private static final String CSV_HEADER = "id,date,type,amount,person,description";
+    
+    // A spreadsheet treats a cell starting with one of these as a formula; such text cells are
+    // written with a leading apostrophe, which ImportService strips again
+    private static final String FORMULA_START = "=+-@\t\r";
+    
+    // Cells starting with these get the apostrophe: the formula starts, and the apostrophe itself,
+    // so that a stored value such as '=total is not read back as =total
+    private static final String GUARDED_START = FORMULA_START + "'";
+    
+    @Autowired
+    private TransactionRepository transactionRepository;
+    
+    @Autowired
+    private PersonRepository personRepository;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Value("${export.chunk-size:1000}")
+    private int chunkSize;
+    
+    // Write all of a user's transactions to the stream, newest first. Rows are read in keyset
+    // chunks of export.chunk-size, each with its own short query, so memory use does not grow
+    // with the ledger and no connection is held while the client reads. Rows added or reversed
+    // while the export runs may or may not be included. The stream is flushed but not closed.
+    public void exportTransactions(User user, ExportFormat format, OutputStream out) throws IOException {
+        Map<Long, String> personNames = new HashMap<>();
+        for (Person person : personRepository.findByUserAndDeletedFalseOrderByNameAsc(user)) {
+            personNames.put(person.getId(), person.getName());
+        }
+        
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        Iterator<TransactionExportRow> rows = new ChunkIterator(user.getId());
+        if (format == ExportFormat.CSV) {
+            writeCsv(rows, personNames, writer);
+        } else {
+            writeNdjson(rows, personNames, writer);
+        }
+        writer.flush();
+    }
+    
+    // A cell value that a spreadsheet will show as text, never evaluate
+    static String guardFormula(String value) {
+        if (value != null && !value.isEmpty() && GUARDED_START.indexOf(value.charAt(0)) >= 0) {
+            return "'" + value;
+        }
+        return value;
+    }
+    
+    // The original value of a cell written by guardFormula
+    static String unguardFormula(String value) {
+        if (value != null && value.length() > 1 && value.charAt(0) == '\''
+                && GUARDED_START.indexOf(value.charAt(1)) >= 0) {
+            return value.substring(1);
+        }
+        return value;
+    }
+    
+    private void writeCsv(Iterator<TransactionExportRow> rows, Map<Long, String> personNames, Writer writer) throws IOException {
+        writer.write(CSV_HEADER);
+        writer.write("\r\n");
+        while (rows.hasNext()) {
+            TransactionExportRow row = rows.next();
+            String person = personName(row.getPersonId(), personNames);
+            if (person == null) {
+                continue;
+            }
+            writer.write(row.getId().toString());
+            writer.write(',');
+            writer.write(row.getDate().toString());
+            writer.write(',');
+            writer.write(row.getType().name());
+            writer.write(',');
+            writer.write(row.getAmount().toPlainString());
+            writer.write(',');
+            writeCsvField(guardFormula(person), writer);
+            writer.write(',');
+            writeCsvField(guardFormula(row.getDescription()), writer);
+            writer.write("\r\n");
+        }
+    }
+    
+    // RFC 4180: quote fields containing a separator, quote or line break, doubling inner quotes
+    private void writeCsvField(String value, Writer writer) throws IOException {
+        if (value == null) {
+            return;
+        }
+        boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+    
+    private void writeNdjson(Iterator<TransactionExportRow> rows, Map<Long, String> personNames, Writer writer) throws IOException {
+        JsonGenerator json = objectMapper.getFactory().createGenerator(writer);
+        json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        json.setRootValueSeparator(null);
+        while (rows.hasNext()) {
+            TransactionExportRow row = rows.next();
+            String person = personName(row.getPersonId(), personNames);
+            if (person == null) {
+                continue;
+            }
+            json.writeStartObject();
+            json.writeNumberField("id", row.getId());
+            json.writeStringField("date", row.getDate().toString());
+            json.writeStringField("type", row.getType().name());
+            json.writeNumberField("amount", row.getAmount());
+            json.writeStringField("person", person);
+            json.writeStringField("description", row.getDescription());
+            json.writeEndObject();
+            json.writeRaw('\n');
+        }
+        json.close();
+    }
+    
+    // People added after the name map was loaded are looked up on first use. Null for a deleted
+    // person, whose rows are skipped; the null is remembered so it is looked up only once.
+    private String personName(Long personId, Map<Long, String> personNames) {
+        if (!personNames.containsKey(personId)) {
+            personNames.put(personId, personRepository.findById(personId)
+                    .filter(person -> !person.isDeleted())
+                    .map(Person::getName)
+                    .orElse(null));
+        }
+        return personNames.get(personId);
+    }
+    
+    // The user's rows, fetched one chunk at a time as the writer asks for them
+    private class ChunkIterator implements Iterator<TransactionExportRow> {
+        
+        private final Long userId;
+        // Cursor of the last row returned; null until the first chunk is read
+        private LocalDateTime afterDate;
+        private Long afterId;
+        private Iterator<TransactionExportRow> chunk = Collections.emptyIterator();
+        private boolean lastChunk;
+        
+        ChunkIterator(Long userId) {
+            this.userId = userId;
+        }
+        
+        @Override
+        public boolean hasNext() {
+            if (!chunk.hasNext() && !lastChunk) {
+                List<TransactionExportRow> rows = afterDate == null
+                        ? transactionRepository.findFirstExportChunk(userId, chunkSize)
+                        : transactionRepository.findExportChunk(userId, afterDate, afterId, chunkSize);
+                lastChunk = rows.size() < chunkSize;
+                if (!rows.isEmpty()) {
+                    TransactionExportRow last = rows.get(rows.size() - 1);
+                    afterDate = last.getDate();
+                    afterId = last.getId();
+                }
+                chunk = rows.iterator();
+            }
+            return chunk.hasNext();
+        }
+        
+        @Override
+        public TransactionExportRow next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return chunk.next();
+        }
+    }
+}
\ No newline at end of file
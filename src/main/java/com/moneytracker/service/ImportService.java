@@ -0,0 +1,252 @@
+package com.moneytracker.service;
+
+import com.moneytracker.dto.ImportResult;
+import com.moneytracker.dto.ImportRowError;
+import com.moneytracker.entity.Person;
+import com.moneytracker.entity.Transaction;
+import com.moneytracker.entity.TransactionType;
+import com.moneytracker.entity.User;
+import com.moneytracker.repository.PersonRepository;
+import com.moneytracker.repository.TransactionRepository;
+import com.moneytracker.util.CsvReader;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Service
+@Transactional
+public class ImportService {
+    
+    @Autowired
+    private PersonRepository personRepository;
+    
+    @Autowired
+    private TransactionRepository transactionRepository;
+    
+    @Autowired
+    private LedgerTotalsService ledgerTotalsService;
+    
+    @Autowired
+    private RollupService rollupService;
+    
+    @Autowired
+    private Validator validator;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Value("${import.batch-size:50}")
+    private int batchSize;
+    
+    @Value("${import.max-reported-errors:100}")
+    private int maxReportedErrors;
+    
+    // Import people and transactions from CSV with a header row. Columns are matched by name:
+    // person (required), type, amount, date, description; others (such as the export's id) are
+    // ignored. Rows without type and amount only create the person.
+    // The file is read one record at a time and rows are inserted in JDBC batches of
+    // import.batch-size; balances, summary totals and rollups are updated once at the end.
+    // Invalid rows are skipped and reported; the rest is imported in one database transaction.
+    public ImportResult importCsv(User user, Reader input) throws IOException {
+        CsvReader csv = new CsvReader(input);
+        List<String> header = csv.readRecord();
+        if (header == null) {
+            throw new RuntimeException("CSV file is empty");
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.putIfAbsent(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        if (!columns.containsKey("person")) {
+            throw new RuntimeException("CSV header must have a 'person' column");
+        }
+        
+        Long userId = user.getId();
+        long version = ledgerTotalsService.beginChange(userId);
+        entityManager.unwrap(Session.class).setJdbcBatchSize(batchSize);
+        
+        Map<String, Long> personIds = new HashMap<>();
+        Map<Long, BigDecimal> balanceDeltas = new HashMap<>();
+        BigDecimal sent = BigDecimal.ZERO;
+        BigDecimal received = BigDecimal.ZERO;
+        long sendCount = 0;
+        long receiveCount = 0;
+        int peopleCreated = 0;
+        int rowsRejected = 0;
+        List<ImportRowError> errors = new ArrayList<>();
+        int pending = 0;
+        
+        List<String> row;
+        while ((row = csv.readRecord()) != null) {
+            if (row.stream().allMatch(String::isBlank)) {
+                continue;
+            }
+            
+            String name;
+            Transaction transaction;
+            try {
+                name = ExportService.unguardFormula(field(row, columns, "person").trim());
+                validate(new Person(name, null));
+                transaction = parseTransaction(row, columns);
+            } catch (RuntimeException e) {
+                rowsRejected++;
+                if (errors.size() < maxReportedErrors) {
+                    errors.add(new ImportRowError(csv.getRecordLine(), e.getMessage()));
+                }
+                continue;
+            }
+            
+            Long personId = personIds.get(name);
+            if (personId == null) {
+                Optional<Person> existing = personRepository.findByNaturalId(user, name);
+                if (existing.isPresent()) {
+                    personId = existing.get().getId();
+                } else {
+                    Person person = new Person(name, entityManager.getReference(User.class, userId));
+                    person.setChangeVersion(version);
+                    entityManager.persist(person);
+                    personId = person.getId();
+                    peopleCreated++;
+                    pending++;
+                }
+                personIds.put(name, personId);
+            }
+            
+            if (transaction != null) {
+                transaction.setUser(entityManager.getReference(User.class, userId));
+                transaction.setPerson(entityManager.getReference(Person.class, personId));
+                transaction.setChangeVersion(version);
+                entityManager.persist(transaction);
+                pending++;
+                
+                balanceDeltas.merge(personId, transaction.getType().balanceDelta(transaction.getAmount()), BigDecimal::add);
+                if (transaction.getType() == TransactionType.SEND) {
+                    sent = sent.add(transaction.getAmount());
+                    sendCount++;
+                } else {
+                    received = received.add(transaction.getAmount());
+                    receiveCount++;
+                }
+            }
+            
+            // Send the batch and drop the inserted entities so memory does not grow with the file
+            if (pending >= batchSize) {
+                entityManager.flush();
+                entityManager.clear();
+                pending = 0;
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        
+        // One balance update per person
+        List<BigDecimal> oldBalances = new ArrayList<>();
+        List<BigDecimal> newBalances = new ArrayList<>();
+        for (Map.Entry<Long, BigDecimal> entry : balanceDeltas.entrySet()) {
+            if (entry.getValue().signum() == 0) {
+                continue;
+            }
+            personRepository.applyBalanceDelta(entry.getKey(), entry.getValue(), version);
+            BigDecimal newBalance = personRepository.findBalanceById(entry.getKey());
+            oldBalances.add(newBalance.subtract(entry.getValue()));
+            newBalances.add(newBalance);
+        }
+        ledgerTotalsService.recordImport(userId, sent, sendCount, received, receiveCount, oldBalances, newBalances);
+        
+        // Set-based rollups and indexing of this import's rows (all stamped with its version):
+        // per-row statements would multiply the import's cost, a full rebuild would add the history's
+        if (sendCount + receiveCount > 0) {
+            rollupService.recordVersion(userId, version);
+            transactionRepository.indexDescriptions(userId, version);
+        }
+        
+        return new ImportResult(version, peopleCreated, (int) (sendCount + receiveCount),
+                rowsRejected, errors);
+    }
+    
+    // The row's transaction (not yet linked to user and person), or null if it only names a person
+    private Transaction parseTransaction(List<String> row, Map<String, Integer> columns) {
+        String typeText = field(row, columns, "type").trim();
+        String amountText = field(row, columns, "amount").trim();
+        if (typeText.isEmpty() && amountText.isEmpty()) {
+            return null;
+        }
+        
+        TransactionType type;
+        try {
+            type = TransactionType.valueOf(typeText.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Type must be SEND or RECEIVE, got '" + typeText + "'");
+        }
+        
+        BigDecimal amount;
+        try {
+            amount = new BigDecimal(amountText).setScale(2);
+        } catch (NumberFormatException e) {
+            throw new RuntimeException("Invalid amount '" + amountText + "'");
+        } catch (ArithmeticException e) {
+            throw new RuntimeException("Amount must have at most 2 decimal places");
+        }
+        if (amount.precision() > 10) {
+            throw new RuntimeException("Amount is too large");
+        }
+        
+        Transaction transaction = new Transaction(amount, type, null, null);
+        String dateText = field(row, columns, "date").trim();
+        if (!dateText.isEmpty()) {
+            transaction.setDate(parseDate(dateText));
+        }
+        String description = ExportService.unguardFormula(field(row, columns, "description"));
+        if (!description.isBlank()) {
+            transaction.setDescription(description);
+        }
+        validate(transaction);
+        return transaction;
+    }
+    
+    private LocalDateTime parseDate(String text) {
+        try {
+            return text.length() == 10 ? LocalDate.parse(text).atStartOfDay() : LocalDateTime.parse(text);
+        } catch (DateTimeParseException e) {
+            throw new RuntimeException("Invalid date '" + text + "' (expected yyyy-MM-dd or yyyy-MM-ddTHH:mm:ss)");
+        }
+    }
+    
+    // Value of a named column, or "" if the file has no such column or the row is short
+    private String field(List<String> row, Map<String, Integer> columns, String column) {
+        Integer index = columns.get(column);
+        return index != null && index < row.size() ? row.get(index) : "";
+    }
+    
+    // Check the entity's bean validation constraints, which would otherwise fail the whole batch at flush
+    private void validate(Object entity) {
+        Set<ConstraintViolation<Object>> violations = validator.validate(entity);
+        if (!violations.isEmpty()) {
+            throw new RuntimeException(violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+        }
+    }
+}
\ No newline at end of file
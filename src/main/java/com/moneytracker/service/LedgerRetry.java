@@ -0,0 +1,51 @@
+package com.moneytracker.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+// Runs a ledger write, retrying a bounded number of times when it loses a
+// lock or version race with a concurrent write to the same person. Each
+// attempt must be a separate service call so it gets its own transaction.
+@Component
+public class LedgerRetry {
+    
+    @Value("${ledger.retry.max-attempts:3}")
+    private int maxAttempts;
+    
+    @Value("${ledger.retry.backoff-ms:20}")
+    private long backoffMs;
+    
+    public <T> T run(Supplier<T> write) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return write.get();
+            } catch (ConcurrencyFailureException e) {
+                if (attempt >= maxAttempts) {
+                    throw e;
+                }
+                sleepBeforeRetry(attempt);
+            }
+        }
+    }
+    
+    public void run(Runnable write) {
+        run(() -> {
+            write.run();
+            return null;
+        });
+    }
+    
+    // Jittered linear backoff so colliding writers do not retry in lockstep
+    private void sleepBeforeRetry(int attempt) {
+        try {
+            Thread.sleep(backoffMs * attempt + ThreadLocalRandom.current().nextLong(backoffMs + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while retrying");
+        }
+    }
+}
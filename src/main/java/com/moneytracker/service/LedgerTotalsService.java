@@ -0,0 +1,161 @@
+package com.moneytracker.service;
+
+import com.moneytracker.entity.LedgerTotals;
+import com.moneytracker.entity.TransactionType;
+import com.moneytracker.entity.User;
+import com.moneytracker.repository.LedgerTotalsRepository;
+import com.moneytracker.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Service
+@Transactional
+public class LedgerTotalsService {
+    
+    @Autowired
+    private LedgerTotalsRepository ledgerTotalsRepository;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    // Create an empty totals row for a new user. Registration is the only place a row is created
+    // (rebuild aside); reads and writes rely on it and never insert one lazily.
+    public void createForUser(Long userId) {
+        ledgerTotalsRepository.createIfMissing(userId);
+    }
+    
+    // Save a new user and its empty totals row in one transaction, so a failure in between cannot
+    // leave a user whose every write and summary read fails
+    public User saveNewUser(User user) {
+        User saved = userRepository.save(user);
+        createForUser(saved.getId());
+        return saved;
+    }
+    
+    // Get a user's totals
+    @Transactional(readOnly = true)
+    public LedgerTotals getTotals(Long userId) {
+        return ledgerTotalsRepository.findById(userId).orElseThrow(() -> missingTotals(userId));
+    }
+    
+    // Current ledger version of a user (0 before the first write)
+    @Transactional(readOnly = true)
+    public long getLedgerVersion(Long userId) {
+        return ledgerTotalsRepository.findLedgerVersion(userId).orElse(0L);
+    }
+    
+    // Start a change to a user's people or transactions: bump the ledger version and return it.
+    // Every write calls this before touching any other row, so the user's totals row is always
+    // the first lock taken and rows stamped with a version commit in version order.
+    public long beginChange(Long userId) {
+        return ledgerTotalsRepository.nextLedgerVersion(userId).orElseThrow(() -> missingTotals(userId));
+    }
+    
+    // Account for a new transaction; newBalance is the person's balance after it was applied
+    public void recordTransaction(Long userId, TransactionType type, BigDecimal amount, BigDecimal newBalance) {
+        BigDecimal oldBalance = newBalance.subtract(type.balanceDelta(amount));
+        applyChange(userId, type, amount, 1, oldBalance, newBalance);
+    }
+    
+    // Account for a reversed transaction; newBalance is the person's balance after the reversal
+    public void reverseTransaction(Long userId, TransactionType type, BigDecimal amount, BigDecimal newBalance) {
+        BigDecimal oldBalance = newBalance.add(type.balanceDelta(amount));
+        applyChange(userId, type, amount.negate(), -1, oldBalance, newBalance);
+    }
+    
+    // Account for a bulk import in one update: per-type sums and counts of the new transactions,
+    // and each touched person's balance before and after (parallel lists)
+    public void recordImport(Long userId, BigDecimal sent, long sendCount, BigDecimal received, long receiveCount,
+                             List<BigDecimal> oldBalances, List<BigDecimal> newBalances) {
+        BigDecimal owed = BigDecimal.ZERO;
+        BigDecimal owes = BigDecimal.ZERO;
+        for (int i = 0; i < oldBalances.size(); i++) {
+            BigDecimal oldBalance = oldBalances.get(i);
+            BigDecimal newBalance = newBalances.get(i);
+            owed = owed.add(positivePart(newBalance).subtract(positivePart(oldBalance)));
+            owes = owes.add(positivePart(newBalance.negate()).subtract(positivePart(oldBalance.negate())));
+        }
+        ledgerTotalsRepository.applyDelta(userId, owed, owes, sent, sendCount, received, receiveCount);
+    }
+    
+    // Remove a person's whole contribution; call before its transactions are deleted
+    public void removePerson(Long userId, Long personId, BigDecimal balance) {
+        BigDecimal sent = BigDecimal.ZERO;
+        BigDecimal received = BigDecimal.ZERO;
+        long sendCount = 0;
+        long receiveCount = 0;
+        for (Object[] row : ledgerTotalsRepository.sumByTypeForPerson(personId)) {
+            if (row[0] == TransactionType.SEND) {
+                sent = (BigDecimal) row[1];
+                sendCount = (Long) row[2];
+            } else {
+                received = (BigDecimal) row[1];
+                receiveCount = (Long) row[2];
+            }
+        }
+        
+        ledgerTotalsRepository.applyDelta(userId,
+                positivePart(balance).negate(), positivePart(balance.negate()).negate(),
+                sent.negate(), -sendCount, received.negate(), -receiveCount);
+    }
+    
+    // Recompute a user's totals from the transactions table (the ledger version still moves forward).
+    // Also repairs a user whose row is missing: the row is merged in before anything is read.
+    public LedgerTotals rebuild(Long userId) {
+        ledgerTotalsRepository.createIfMissing(userId);
+        LedgerTotals totals = new LedgerTotals(userId);
+        // Bumping first also locks the row against concurrent writes until commit
+        totals.setLedgerVersion(beginChange(userId));
+        
+        for (Object[] row : ledgerTotalsRepository.sumByTypeForUser(userId)) {
+            if (row[0] == TransactionType.SEND) {
+                totals.setSentTotal((BigDecimal) row[1]);
+                totals.setSendCount((Long) row[2]);
+            } else {
+                totals.setReceivedTotal((BigDecimal) row[1]);
+                totals.setReceiveCount((Long) row[2]);
+            }
+        }
+        
+        for (BigDecimal balance : ledgerTotalsRepository.balancesByPersonForUser(userId)) {
+            totals.setOwedToUser(totals.getOwedToUser().add(positivePart(balance)));
+            totals.setUserOwes(totals.getUserOwes().add(positivePart(balance.negate())));
+        }
+        
+        return ledgerTotalsRepository.save(totals);
+    }
+    
+    // Recompute the totals of every user; returns how many were rebuilt
+    public int rebuildAll() {
+        List<Long> userIds = userRepository.findAllIds();
+        for (Long userId : userIds) {
+            rebuild(userId);
+        }
+        return userIds.size();
+    }
+    
+    // Move owed/owes by how the person's balance crossed zero, and the per-type figures by amount/count
+    private void applyChange(Long userId, TransactionType type, BigDecimal amount, long count,
+                             BigDecimal oldBalance, BigDecimal newBalance) {
+        BigDecimal owed = positivePart(newBalance).subtract(positivePart(oldBalance));
+        BigDecimal owes = positivePart(newBalance.negate()).subtract(positivePart(oldBalance.negate()));
+        
+        if (type == TransactionType.SEND) {
+            ledgerTotalsRepository.applyDelta(userId, owed, owes, amount, count, BigDecimal.ZERO, 0);
+        } else {
+            ledgerTotalsRepository.applyDelta(userId, owed, owes, BigDecimal.ZERO, 0, amount, count);
+        }
+    }
+    
+    private static RuntimeException missingTotals(Long userId) {
+        return new RuntimeException("Ledger totals not found for user " + userId + "; rebuild the summary");
+    }
+    
+    private static BigDecimal positivePart(BigDecimal value) {
+        return value.signum() > 0 ? value : BigDecimal.ZERO;
+    }
+}
@@ -0,0 +1,9 @@
+package com.moneytracker.service;
+
+// Thrown when the password hashing queue is full; callers should answer 503 and let the client retry
+public class PasswordHashingBusyException extends RuntimeException {
+    
+    public PasswordHashingBusyException(String message) {
+        super(message);
+    }
+}
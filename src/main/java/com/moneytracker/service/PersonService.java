@@ -1,9 +1,17 @@
 package com.moneytracker.service;
 
+import com.moneytracker.dto.PersonView;
+import com.moneytracker.entity.LedgerTombstone;
 import com.moneytracker.entity.Person;
+import com.moneytracker.entity.TombstoneType;
 import com.moneytracker.entity.User;
+import com.moneytracker.repository.LedgerTombstoneRepository;
 import com.moneytracker.repository.PersonRepository;
+import com.moneytracker.repository.TransactionRepository;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -12,49 +20,97 @@ import java.util.Optional;
 
 @Service
 @Transactional
+@Timed("service.method")
 public class PersonService {
     
     @Autowired
     private PersonRepository personRepository;
     
+    @Autowired
+    private LedgerTotalsService ledgerTotalsService;
+    
+    @Autowired
+    private RollupService rollupService;
+    
+    @Autowired
+    private LedgerTombstoneRepository tombstoneRepository;
+    
+    @Autowired
+    private TransactionRepository transactionRepository;
+    
+    @Value("${people.delete.soft:false}")
+    private boolean softDelete;
+    
     // Add new person for user
     public Person addPerson(String name, User user) {
-        // Check if person already exists for this user
-        if (personRepository.existsByNameAndUser(name, user)) {
-            throw new RuntimeException("Person with this name already exists");
-        }
-        
+        // The person's user is set by the constructor; the user's people collection is left
+        // unloaded so that adding a person does not read the user or its other people
         Person person = new Person(name, user);
-        user.addPerson(person); // Using OOP method from User class
+        person.setChangeVersion(ledgerTotalsService.beginChange(user.getId()));
         
-        return personRepository.save(person);
+        // Duplicate names among live people are rejected by the unique (user_id, name, deleted_id)
+        // constraint
+        try {
+            return personRepository.saveAndFlush(person);
+        } catch (DataIntegrityViolationException e) {
+            throw new RuntimeException("Person with this name already exists");
+        }
     }
     
-    // Get all people for user
-    public List<Person> getAllPeopleForUser(User user) {
-        return personRepository.findByUserOrderByNameAsc(user);
+    // Get all people for user (served from the query and entity caches when warm)
+    @Transactional(readOnly = true)
+    public List<PersonView> getAllPeopleForUser(User user) {
+        return personRepository.findByUserAndDeletedFalseOrderByNameAsc(user).stream()
+                .map(person -> new PersonView(person.getId(), person.getName(), person.getBalance()))
+                .toList();
     }
     
     // Find person by name and user
     public Optional<Person> findByNameAndUser(String name, User user) {
-        return personRepository.findByNameAndUser(name, user);
+        return personRepository.findByNaturalId(user, name);
     }
     
-    // Delete person by name and user
+    // Delete person by name and user. Nothing here loads the person's transactions: the totals
+    // come from the rollups and the history goes with one bulk DELETE, or, in soft mode, is left
+    // for the background purge so the request does not wait on it.
     public void deletePerson(String name, User user) {
-        Optional<Person> personOpt = personRepository.findByNameAndUser(name, user);
+        // Same lock order as the write paths: the user's ledger row, then the person, so no
+        // transaction slips in between reading the person's contribution and deleting it
+        long version = ledgerTotalsService.beginChange(user.getId());
+        Optional<Person> personOpt = personRepository.findForUpdateByNameAndUserAndDeletedFalse(name, user);
         
-        if (personOpt.isPresent()) {
-            Person person = personOpt.get();
-            user.removePerson(person); // Using OOP method from User class
-            personRepository.delete(person);
-        } else {
+        if (personOpt.isEmpty()) {
             throw new RuntimeException("Person not found");
         }
+        
+        Person person = personOpt.get();
+        tombstoneRepository.save(new LedgerTombstone(user.getId(), TombstoneType.PERSON, person.getId(), version));
+        ledgerTotalsService.removePerson(user.getId(), person.getId(), person.getBalance());
+        rollupService.deleteForPerson(person.getId());
+        
+        if (softDelete) {
+            personRepository.markDeleted(person.getId(), version);
+        } else {
+            transactionRepository.deleteByPersonId(person.getId());
+            personRepository.delete(person);
+        }
+    }
+    
+    // Remove up to limit transactions of a soft-deleted person, and the person once none are
+    // left. Returns true when the person is gone. Each call is its own short transaction.
+    public boolean purgeDeleted(Long personId, int limit) {
+        int removed = transactionRepository.deleteBatchByPersonId(personId, limit);
+        if (removed >= limit) {
+            return false;
+        }
+        personRepository.findById(personId)
+                .filter(Person::isDeleted)
+                .ifPresent(personRepository::delete);
+        return true;
     }
     
     // Check if person exists for user
     public boolean personExists(String name, User user) {
-        return personRepository.existsByNameAndUser(name, user);
+        return personRepository.existsByNameAndUserAndDeletedFalse(name, user);
     }
 }
\ No newline at end of file
@@ -0,0 +1,81 @@
+package com.moneytracker.service;
+
+import com.moneytracker.dto.RollupPoint;
+import com.moneytracker.entity.RollupGranularity;
+import com.moneytracker.entity.TransactionType;
+import com.moneytracker.repository.TransactionRollupRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Service
+@Transactional
+public class RollupService {
+    
+    @Autowired
+    private TransactionRollupRepository rollupRepository;
+    
+    @Autowired
+    private LedgerTotalsService ledgerTotalsService;
+    
+    // Count a new transaction into its daily and monthly buckets
+    public void recordTransaction(Long userId, Long personId, LocalDateTime date, TransactionType type, BigDecimal amount) {
+        addToBuckets(userId, personId, date, type, amount, 1);
+    }
+    
+    // Take a reversed transaction back out of its buckets
+    public void reverseTransaction(Long userId, Long personId, LocalDateTime date, TransactionType type, BigDecimal amount) {
+        addToBuckets(userId, personId, date, type, amount.negate(), -1);
+    }
+    
+    // Count every transaction written at one ledger version (a bulk import) into its buckets
+    public void recordVersion(Long userId, long version) {
+        rollupRepository.addVersionToDaily(userId, version);
+        rollupRepository.addVersionToMonthly(userId, version);
+    }
+    
+    // Drop all buckets of a deleted person
+    public void deleteForPerson(Long personId) {
+        rollupRepository.deleteByPersonId(personId);
+    }
+    
+    // Recompute all of a user's buckets from the transactions table. The user's ledger lock is
+    // taken first, as every write does, so no concurrent write can add to a bucket between the
+    // delete and the re-insert (lost, counted twice, or a duplicate bucket).
+    public void rebuildForUser(Long userId) {
+        ledgerTotalsService.beginChange(userId);
+        rollupRepository.deleteByUserId(userId);
+        rollupRepository.rebuildDaily(userId);
+        rollupRepository.rebuildMonthly(userId);
+    }
+    
+    // A person's balance at the end of the given day, from the buckets
+    @Transactional(readOnly = true)
+    public BigDecimal balanceAtEndOf(Long personId, LocalDate day) {
+        return rollupRepository.balanceAtEndOf(personId, RollupGranularity.MONTH.bucketOf(day.atStartOfDay()), day);
+    }
+    
+    // Buckets in [from, to] (inclusive), optionally for one person
+    @Transactional(readOnly = true)
+    public List<RollupPoint> getRange(Long userId, RollupGranularity granularity,
+                                      LocalDate from, LocalDate to, Long personId) {
+        if (from.isAfter(to)) {
+            throw new RuntimeException("'from' must not be after 'to'");
+        }
+        return rollupRepository.findRange(userId, granularity,
+                granularity.bucketOf(from.atStartOfDay()), to, personId);
+    }
+    
+    private void addToBuckets(Long userId, Long personId, LocalDateTime date, TransactionType type,
+                              BigDecimal amount, long count) {
+        for (RollupGranularity granularity : RollupGranularity.values()) {
+            rollupRepository.addToBucket(userId, personId, granularity.name(),
+                    granularity.bucketOf(date), type.name(), amount, count);
+        }
+    }
+}
\ No newline at end of file
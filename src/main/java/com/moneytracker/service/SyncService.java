@@ -0,0 +1,51 @@
+package com.moneytracker.service;
+
+import com.moneytracker.dto.PersonView;
+import com.moneytracker.dto.SyncResponse;
+import com.moneytracker.dto.TransactionView;
+import com.moneytracker.entity.LedgerTombstone;
+import com.moneytracker.entity.User;
+import com.moneytracker.repository.LedgerTombstoneRepository;
+import com.moneytracker.repository.PersonRepository;
+import com.moneytracker.repository.TransactionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Service
+@Transactional(readOnly = true)
+public class SyncService {
+    
+    @Autowired
+    private LedgerTotalsService ledgerTotalsService;
+    
+    @Autowired
+    private PersonRepository personRepository;
+    
+    @Autowired
+    private TransactionRepository transactionRepository;
+    
+    @Autowired
+    private LedgerTombstoneRepository tombstoneRepository;
+    
+    // Rows created or changed, and rows removed, after version `since`.
+    // The current version is read first and used as the upper bound: writes take versions in
+    // commit order, so everything up to it is already visible and later writes are left for
+    // the next sync instead of being half-reported.
+    public SyncResponse getChanges(User user, Long since) {
+        long version = ledgerTotalsService.getLedgerVersion(user.getId());
+        
+        // No token, or one this server never issued (e.g. after a restore): send everything
+        boolean full = since == null || since <= 0 || since > version;
+        long from = full ? 0 : since;
+        
+        List<PersonView> people = personRepository.findViewsChangedBetween(user, from, version);
+        List<TransactionView> transactions = transactionRepository.findViewsChangedBetween(user, from, version);
+        List<LedgerTombstone> deleted = full
+                ? List.of()
+                : tombstoneRepository.findChangedBetween(user.getId(), from, version);
+        return new SyncResponse(version, full, people, transactions, deleted);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,179 @@
+package com.moneytracker.service;
+
+import com.moneytracker.repository.TransactionRepository;
+import com.moneytracker.util.ZipfSampler;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Writes a generated ledger straight through JDBC batches, for benchmark and soak-test datasets.
+// Rows bypass the entities (and the second-level cache), so this is only safe before the
+// generated users have been read through JPA.
+@Service
+public class SyntheticDataService {
+    
+    // Everything generateLedger draws from; people and dates are picked with Zipf skews
+    public record LedgerSpec(int people, long transactions, ZipfSampler personSampler, ZipfSampler daySampler,
+                             LocalDate lastDay, double descriptionRate, int batchSize) {
+    }
+    
+    // One pass of generateLedger: per-type sums and counts, and each person's final balance
+    public record LedgerResult(BigDecimal sent, long sendCount, BigDecimal received, long receiveCount,
+                               List<BigDecimal> balances) {
+    }
+    
+    // Descriptions are drawn from this list, so text search has common and rare terms
+    private static final String[] DESCRIPTIONS = {
+        "Groceries", "Rent share", "Dinner at the pizza place", "Coffee", "Concert tickets",
+        "Taxi to the airport", "Electricity bill", "Birthday present", "Weekend trip fuel",
+        "Movie night snacks", "Borrowed cash", "Paid back loan", "Gym membership", "Book club",
+        "Hardware store", "Vet appointment", "Phone bill split", "Lunch", "Ski rental", "Parking"
+    };
+    
+    private static final String INSERT_PERSON =
+            "INSERT INTO people (id, user_id, name, balance, version, change_version, deleted) " +
+            "VALUES (?, ?, ?, 0, 0, ?, FALSE)";
+    private static final String INSERT_TRANSACTION =
+            "INSERT INTO transactions (id, user_id, person_id, amount, description, type, date, change_version) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String UPDATE_BALANCE = "UPDATE people SET balance = ? WHERE id = ?";
+    
+    // Ids per sequence value: must match allocationSize of the entities' sequence generators
+    private static final int ID_BLOCK = 50;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private LedgerTotalsService ledgerTotalsService;
+    
+    @Autowired
+    private RollupService rollupService;
+    
+    @Autowired
+    private TransactionRepository transactionRepository;
+    
+    // Insert a user's people and transactions at the given ledger version, then set every
+    // balance from the same pass. Each batch commits on its own (no surrounding transaction),
+    // so the database never holds millions of uncommitted rows.
+    public LedgerResult generateLedger(Long userId, long version, LedgerSpec spec, Random random) {
+        IdAllocator personIds = new IdAllocator("people_seq");
+        long[] people = new long[spec.people()];
+        List<Object[]> batch = new ArrayList<>(spec.batchSize());
+        for (int p = 0; p < people.length; p++) {
+            people[p] = personIds.next();
+            batch.add(new Object[] {people[p], userId, "Person " + p, version});
+            if (batch.size() == spec.batchSize()) {
+                jdbcTemplate.batchUpdate(INSERT_PERSON, batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_PERSON, batch);
+            batch.clear();
+        }
+        
+        // Amounts are kept in cents until the end
+        long[] balances = new long[people.length];
+        long sent = 0;
+        long sendCount = 0;
+        long received = 0;
+        long receiveCount = 0;
+        IdAllocator transactionIds = new IdAllocator("transactions_seq");
+        for (long t = 0; t < spec.transactions(); t++) {
+            int person = spec.personSampler().next(random);
+            long cents = 100 + random.nextInt(99901);
+            // Even odds keep balances near zero, within the NUMERIC(10, 2) column
+            boolean send = random.nextBoolean();
+            if (send) {
+                balances[person] += cents;
+                sent += cents;
+                sendCount++;
+            } else {
+                balances[person] -= cents;
+                received += cents;
+                receiveCount++;
+            }
+            LocalDateTime date = spec.lastDay().minusDays(spec.daySampler().next(random)).atStartOfDay()
+                    .plusSeconds(random.nextInt(86400));
+            String description = random.nextDouble() < spec.descriptionRate()
+                    ? DESCRIPTIONS[random.nextInt(DESCRIPTIONS.length)]
+                    : null;
+            batch.add(new Object[] {transactionIds.next(), userId, people[person], BigDecimal.valueOf(cents, 2),
+                                    description, send ? "SEND" : "RECEIVE", Timestamp.valueOf(date), version});
+            if (batch.size() == spec.batchSize()) {
+                jdbcTemplate.batchUpdate(INSERT_TRANSACTION, batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_TRANSACTION, batch);
+            batch.clear();
+        }
+        
+        List<BigDecimal> finalBalances = new ArrayList<>(people.length);
+        for (int p = 0; p < people.length; p++) {
+            BigDecimal balance = BigDecimal.valueOf(balances[p], 2);
+            finalBalances.add(balance);
+            batch.add(new Object[] {balance, people[p]});
+        }
+        jdbcTemplate.batchUpdate(UPDATE_BALANCE, batch);
+        
+        return new LedgerResult(BigDecimal.valueOf(sent, 2), sendCount, BigDecimal.valueOf(received, 2),
+                receiveCount, finalBalances);
+    }
+    
+    // Bring a generated user's summary totals, rollups and description index up to date, as an
+    // import does: totals from the generation pass, the rest with set-based statements
+    @Transactional
+    public void finishLedger(Long userId, long version, LedgerResult result) {
+        List<BigDecimal> zeros = new ArrayList<>(result.balances().size());
+        for (int i = 0; i < result.balances().size(); i++) {
+            zeros.add(BigDecimal.ZERO);
+        }
+        ledgerTotalsService.recordImport(userId, result.sent(), result.sendCount(), result.received(),
+                result.receiveCount(), zeros, result.balances());
+        rollupService.rebuildForUser(userId);
+        transactionRepository.indexDescriptions(userId, version);
+    }
+    
+    // Hands out ids the way Hibernate's pooled optimizer does: each sequence value is the top of
+    // a block of ID_BLOCK ids. Blocks are fetched many at a time with one query.
+    private class IdAllocator {
+        
+        private static final int BLOCKS_PER_FETCH = 200;
+        
+        private final String sql;
+        private final List<Long> blocks = new ArrayList<>();
+        private int block;
+        // The current block is next..last; empty until the first fetch
+        private long next = 1;
+        private long last = 0;
+        
+        IdAllocator(String sequence) {
+            sql = "SELECT NEXT VALUE FOR " + sequence + " FROM SYSTEM_RANGE(1, " + BLOCKS_PER_FETCH + ")";
+        }
+        
+        long next() {
+            if (next > last) {
+                if (block == blocks.size()) {
+                    blocks.clear();
+                    blocks.addAll(jdbcTemplate.queryForList(sql, Long.class));
+                    block = 0;
+                }
+                last = blocks.get(block++);
+                next = last - ID_BLOCK + 1;
+            }
+            return next++;
+        }
+    }
+}
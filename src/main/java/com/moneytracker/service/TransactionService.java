@@ -1,21 +1,46 @@
 package com.moneytracker.service;
 
+import com.moneytracker.dto.SearchOrder;
+import com.moneytracker.dto.StatementLine;
+import com.moneytracker.dto.StatementPage;
+import com.moneytracker.dto.TextMatch;
+import com.moneytracker.dto.TransactionPage;
+import com.moneytracker.dto.TransactionView;
+import com.moneytracker.entity.LedgerTombstone;
 import com.moneytracker.entity.Person;
 import com.moneytracker.entity.Transaction;
+import com.moneytracker.entity.TombstoneType;
 import com.moneytracker.entity.TransactionType;
 import com.moneytracker.entity.User;
+import com.moneytracker.repository.LedgerTombstoneRepository;
 import com.moneytracker.repository.PersonRepository;
 import com.moneytracker.repository.TransactionRepository;
+import com.moneytracker.repository.TransactionSpecifications;
+import com.moneytracker.util.PageCursor;
+import com.moneytracker.util.Trigrams;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 @Transactional
+@Timed("service.method")
 public class TransactionService {
     
     @Autowired
@@ -24,9 +49,48 @@ public class TransactionService {
     @Autowired
     private PersonRepository personRepository;
     
+    @Autowired
+    private LedgerTotalsService ledgerTotalsService;
+    
+    @Autowired
+    private RollupService rollupService;
+    
+    @Autowired
+    private LedgerTombstoneRepository tombstoneRepository;
+    
+    // Open ends of a statement or search range, so the query always has a bounded range
+    private static final LocalDateTime STATEMENT_START = LocalDateTime.of(1, 1, 1, 0, 0);
+    private static final LocalDateTime STATEMENT_END = LocalDateTime.of(9999, 12, 31, 0, 0);
+    
+    // Longest text search accepted, and how far trigram counts go when picking the rarest
+    private static final int MAX_SEARCH_TEXT = 100;
+    private static final int TRIGRAM_COUNT_CAP = 5000;
+    
+    @Value("${transactions.search.timeout-seconds:5}")
+    private int searchTimeoutSeconds;
+    
+    @Value("${transactions.page.default-size:50}")
+    private int defaultPageSize;
+    
+    @Value("${transactions.page.max-size:200}")
+    private int maxPageSize;
+    
     // Send money to person
     public Transaction sendMoney(String personName, BigDecimal amount, String description, User user) {
-        Optional<Person> personOpt = personRepository.findByNameAndUser(personName, user);
+        return recordTransaction(personName, amount, description, TransactionType.SEND, user);
+    }
+    
+    // Receive money from person
+    public Transaction receiveMoney(String personName, BigDecimal amount, String description, User user) {
+        return recordTransaction(personName, amount, description, TransactionType.RECEIVE, user);
+    }
+    
+    // Insert one transaction and apply its balance change to the locked person row.
+    // The lazy transaction collections on User and Person are never initialized,
+    // so the cost does not grow with the size of the history.
+    private Transaction recordTransaction(String personName, BigDecimal amount, String description,
+                                          TransactionType type, User user) {
+        Optional<Person> personOpt = personRepository.findByNaturalId(user, personName);
         
         if (personOpt.isEmpty()) {
             throw new RuntimeException("Person not found");
@@ -36,45 +100,234 @@ public class TransactionService {
             throw new RuntimeException("Amount must be positive");
         }
         
+        // Versioning first: the user's ledger row is the first lock every write takes
+        long version = ledgerTotalsService.beginChange(user.getId());
+        
         Person person = personOpt.get();
-        Transaction transaction = new Transaction(amount, description, TransactionType.SEND, user, person);
+        Transaction transaction = new Transaction(amount, description, type, user, person);
+        transaction.setChangeVersion(version);
+        transaction = transactionRepository.save(transaction);
         
-        // Using OOP methods to maintain relationships and update balances
-        user.addTransaction(transaction);
-        person.addTransaction(transaction);
+        // The person may have been deleted while we waited for the ledger lock; the update skips
+        // deleted people, and throwing rolls the insert back
+        BigDecimal delta = type.balanceDelta(amount);
+        if (personRepository.applyBalanceDelta(person.getId(), delta, version) == 0) {
+            throw new RuntimeException("Person not found");
+        }
         
-        // Save person first to update balance, then transaction
-        personRepository.save(person);
-        return transactionRepository.save(transaction);
+        // The person is the managed instance the update locked, re-read and changed
+        BigDecimal newBalance = person.getBalance();
+        
+        ledgerTotalsService.recordTransaction(user.getId(), type, amount, newBalance);
+        rollupService.recordTransaction(user.getId(), person.getId(), transaction.getDate(), type, amount);
+        // Descriptions shorter than a trigram have nothing to index
+        if (description != null && description.length() >= 3) {
+            transactionRepository.indexDescription(transaction.getId());
+        }
+        return transaction;
     }
     
-    // Receive money from person
-    public Transaction receiveMoney(String personName, BigDecimal amount, String description, User user) {
-        Optional<Person> personOpt = personRepository.findByNameAndUser(personName, user);
+    // Get all transactions for user
+    @Transactional(readOnly = true)
+    public List<TransactionView> getAllTransactionsForUser(User user) {
+        return transactionRepository.findViewsByUser(user);
+    }
+    
+    // Get one page of transactions for user, newest first
+    @Transactional(readOnly = true)
+    public TransactionPage getTransactionPage(User user, String cursor, Integer size) {
+        int pageSize = size == null ? defaultPageSize : Math.max(1, Math.min(size, maxPageSize));
         
-        if (personOpt.isEmpty()) {
-            throw new RuntimeException("Person not found");
+        // Fetch one extra row to find out whether another page follows
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
+        List<PageCursor> keys;
+        if (cursor == null || cursor.isBlank()) {
+            keys = transactionRepository.findFirstPageKeys(user, limit);
+        } else {
+            PageCursor after = PageCursor.decode(cursor);
+            keys = transactionRepository.findPageKeysAfter(user, after.getDate(), after.getId(), limit);
+        }
+        if (keys.size() <= pageSize) {
+            return new TransactionPage(findViews(keys), null);
         }
         
-        if (amount.compareTo(BigDecimal.ZERO) <= 0) {
-            throw new RuntimeException("Amount must be positive");
+        // Paging runs on the keys alone; rows of soft-deleted people are dropped afterwards, so a
+        // page can come back short while a purge is pending
+        List<PageCursor> pageKeys = keys.subList(0, pageSize);
+        return new TransactionPage(findViews(pageKeys), pageKeys.get(pageSize - 1).encode());
+    }
+    
+    // Search a user's transactions. Every filter is optional; the date range is inclusive days.
+    // Only (date, id) keys are read for the page, through the index that matches the filters:
+    // the person's index, the (user, type) index, or the user's. Amount bounds are checked on the
+    // rows read, which the time budget caps.
+    @Transactional(readOnly = true)
+    public TransactionPage searchTransactions(User user, String personName, TransactionType type,
+                                              BigDecimal minAmount, BigDecimal maxAmount,
+                                              LocalDate from, LocalDate to, SearchOrder order,
+                                              String cursor, Integer size) {
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new RuntimeException("'from' must not be after 'to'");
         }
+        if (minAmount != null && maxAmount != null && minAmount.compareTo(maxAmount) > 0) {
+            throw new RuntimeException("'minAmount' must not be more than 'maxAmount'");
+        }
+        int pageSize = size == null ? defaultPageSize : Math.max(1, Math.min(size, maxPageSize));
         
-        Person person = personOpt.get();
-        Transaction transaction = new Transaction(amount, description, TransactionType.RECEIVE, user, person);
+        Specification<Transaction> spec = TransactionSpecifications.ofUser(user);
+        List<String> leading;
+        if (personName != null && !personName.isBlank()) {
+            Person person = personRepository.findByNaturalId(user, personName)
+                    .orElseThrow(() -> new RuntimeException("Person not found"));
+            spec = spec.and(TransactionSpecifications.withPerson(person));
+            leading = List.of("person");
+        } else if (type != null) {
+            leading = List.of("user", "type");
+        } else {
+            leading = List.of("user");
+        }
+        if (type != null) {
+            spec = spec.and(TransactionSpecifications.ofType(type));
+        }
+        if (minAmount != null) {
+            spec = spec.and(TransactionSpecifications.amountAtLeast(minAmount));
+        }
+        if (maxAmount != null) {
+            spec = spec.and(TransactionSpecifications.amountAtMost(maxAmount));
+        }
+        spec = spec.and(TransactionSpecifications.dateBetween(
+                from == null ? STATEMENT_START : from.atStartOfDay(),
+                to == null ? STATEMENT_END : to.plusDays(1).atStartOfDay()));
+        if (cursor != null && !cursor.isBlank()) {
+            spec = spec.and(TransactionSpecifications.after(PageCursor.decode(cursor), order.isDescending()));
+        }
         
-        // Using OOP methods to maintain relationships and update balances
-        user.addTransaction(transaction);
-        person.addTransaction(transaction);
+        // Fetch one extra key to find out whether another page follows
+        List<PageCursor> keys;
+        try {
+            keys = transactionRepository.findKeys(spec, leading, order.isDescending(), pageSize + 1,
+                    searchTimeoutSeconds);
+        } catch (QueryTimeoutException e) {
+            throw new RuntimeException("Search took longer than " + searchTimeoutSeconds + "s; narrow the filters");
+        }
+        List<PageCursor> pageKeys = keys.size() > pageSize ? keys.subList(0, pageSize) : keys;
+        String nextCursor = keys.size() > pageSize ? pageKeys.get(pageSize - 1).encode() : null;
         
-        // Save person first to update balance, then transaction
-        personRepository.save(person);
-        return transactionRepository.save(transaction);
+        // The views come back newest first; put them in key order
+        Map<Long, TransactionView> views = new HashMap<>();
+        for (TransactionView view : findViews(pageKeys)) {
+            views.put(view.getId(), view);
+        }
+        List<TransactionView> items = pageKeys.stream()
+                .map(key -> views.get(key.getId()))
+                .filter(Objects::nonNull)
+                .toList();
+        return new TransactionPage(items, nextCursor);
     }
     
-    // Get all transactions for user
-    public List<Transaction> getAllTransactionsForUser(User user) {
-        return transactionRepository.findByUserOrderByDateDesc(user);
+    // Search the descriptions of a user's transactions for every whitespace-separated term,
+    // newest first. The rarest trigram of the terms picks the index rows to walk, so a page
+    // costs about as many lookups as it takes to find its matches among that trigram's rows.
+    @Transactional(readOnly = true)
+    public TransactionPage searchDescriptions(User user, String text, TextMatch match, String cursor, Integer size) {
+        if (text == null || text.isBlank()) {
+            throw new RuntimeException("Search text is required");
+        }
+        if (text.length() > MAX_SEARCH_TEXT) {
+            throw new RuntimeException("Search text must be at most " + MAX_SEARCH_TEXT + " characters");
+        }
+        List<String> terms = List.of(text.trim().split("\\s+"));
+        if (terms.stream().anyMatch(term -> term.length() < 3)) {
+            throw new RuntimeException("Search terms must be at least 3 characters");
+        }
+        int pageSize = size == null ? defaultPageSize : Math.max(1, Math.min(size, maxPageSize));
+        
+        // All the terms' trigrams are counted with one statement. Counting stops at the cap: past
+        // it, any trigram is cheap enough to walk.
+        Set<String> grams = new LinkedHashSet<>();
+        for (String term : terms) {
+            grams.addAll(Trigrams.of(term));
+        }
+        String rarest = null;
+        int rarestCount = Integer.MAX_VALUE;
+        for (Map.Entry<String, Integer> count : transactionRepository.countTrigrams(user.getId(), grams,
+                TRIGRAM_COUNT_CAP).entrySet()) {
+            if (count.getValue() == 0) {
+                return new TransactionPage(List.of(), null);
+            }
+            if (count.getValue() < rarestCount) {
+                rarest = count.getKey();
+                rarestCount = count.getValue();
+            }
+        }
+        
+        // Fetch one extra key to find out whether another page follows
+        PageCursor after = cursor == null || cursor.isBlank() ? null : PageCursor.decode(cursor);
+        List<PageCursor> keys;
+        try {
+            keys = transactionRepository.findKeysByDescription(user.getId(), rarest, terms, match, after,
+                    pageSize + 1, searchTimeoutSeconds);
+        } catch (QueryTimeoutException e) {
+            throw new RuntimeException("Search took longer than " + searchTimeoutSeconds + "s; use rarer terms");
+        }
+        if (keys.size() <= pageSize) {
+            return new TransactionPage(findViews(keys), null);
+        }
+        List<PageCursor> pageKeys = keys.subList(0, pageSize);
+        return new TransactionPage(findViews(pageKeys), pageKeys.get(pageSize - 1).encode());
+    }
+    
+    // Get one page of a person's statement in [from, to] (inclusive days, both optional), newest
+    // first, each row with the running balance after it. The first page starts from the current
+    // balance, or from the rollups' balance at the end of 'to'; later pages start from the
+    // balance carried in the cursor, so every page is a single indexed range scan. The current
+    // balance is queried in this transaction rather than taken from the (possibly cached) person,
+    // so it agrees with the rows the page query sees.
+    @Transactional(readOnly = true)
+    public StatementPage getStatement(User user, String personName, LocalDate from, LocalDate to,
+                                      String cursor, Integer size) {
+        Person person = personRepository.findByNaturalId(user, personName)
+                .orElseThrow(() -> new RuntimeException("Person not found"));
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new RuntimeException("'from' must not be after 'to'");
+        }
+        int pageSize = size == null ? defaultPageSize : Math.max(1, Math.min(size, maxPageSize));
+        
+        PageCursor after;
+        if (cursor == null || cursor.isBlank()) {
+            LocalDateTime end = to == null ? STATEMENT_END : to.plusDays(1).atStartOfDay();
+            BigDecimal anchor = to == null
+                    ? personRepository.findBalanceById(person.getId())
+                    : rollupService.balanceAtEndOf(person.getId(), to);
+            after = new PageCursor(end, Long.MIN_VALUE, anchor);
+        } else {
+            after = PageCursor.decode(cursor);
+            if (after.getBalance() == null) {
+                throw new RuntimeException("Invalid cursor");
+            }
+        }
+        LocalDateTime start = from == null ? STATEMENT_START : from.atStartOfDay();
+        
+        // Fetch one extra row to find out whether another page follows; its balance is where
+        // the next page starts
+        List<StatementLine> rows = transactionRepository.findStatementPage(person.getId(), start,
+                after.getDate(), after.getId(), after.getBalance(), pageSize + 1);
+        if (rows.size() <= pageSize) {
+            return new StatementPage(rows, null);
+        }
+        
+        List<StatementLine> items = rows.subList(0, pageSize);
+        StatementLine last = items.get(pageSize - 1);
+        return new StatementPage(items,
+                new PageCursor(last.getDate(), last.getId(), rows.get(pageSize).getBalance()).encode());
+    }
+    
+    // Load the views for a page of keys, skipping soft-deleted people
+    private List<TransactionView> findViews(List<PageCursor> keys) {
+        if (keys.isEmpty()) {
+            return List.of();
+        }
+        return transactionRepository.findViewsByIdIn(keys.stream().map(PageCursor::getId).toList());
     }
     
     // Get transactions for specific person
@@ -97,13 +350,27 @@ public class TransactionService {
             throw new RuntimeException("Unauthorized to reverse this transaction");
         }
         
+        // Only the person's id is needed, which the lazy reference carries without loading it
         Person person = transaction.getPerson();
+        long version = ledgerTotalsService.beginChange(user.getId());
         
-        // Using OOP methods to maintain relationships and update balances
-        person.removeTransaction(transaction);
+        // Delete the row and undo its balance change in place. Only the request that
+        // actually removed the row may touch the balance, so concurrent reversals of
+        // the same transaction cannot undo it twice.
+        if (transactionRepository.deleteByIdReturningCount(transactionId) == 0) {
+            throw new RuntimeException("Transaction not found");
+        }
+        // A soft-deleted person's transactions are already gone from the ledger; throwing rolls
+        // the delete back and leaves the row to the purge
+        if (personRepository.applyBalanceDelta(person.getId(),
+                transaction.getType().balanceDelta(transaction.getAmount()).negate(), version) == 0) {
+            throw new RuntimeException("Transaction not found");
+        }
+        tombstoneRepository.save(new LedgerTombstone(user.getId(), TombstoneType.TRANSACTION, transactionId, version));
         
-        // Save person to update balance, then delete transaction
-        personRepository.save(person);
-        transactionRepository.delete(transaction);
+        ledgerTotalsService.reverseTransaction(user.getId(), transaction.getType(), transaction.getAmount(),
+                personRepository.findBalanceById(person.getId()));
+        rollupService.reverseTransaction(user.getId(), person.getId(), transaction.getDate(),
+                transaction.getType(), transaction.getAmount());
     }
 }
\ No newline at end of file
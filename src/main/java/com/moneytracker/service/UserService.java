@@ -2,24 +2,36 @@ package com.moneytracker.service;
 
 import com.moneytracker.entity.User;
 import com.moneytracker.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
 @Service
 @Transactional
+@Timed("service.method")
 public class UserService {
     
     @Autowired
     private UserRepository userRepository;
     
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private PasswordHashingService passwordHashingService;
     
-    // Register new user
+    @Autowired
+    private LedgerTotalsService ledgerTotalsService;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    // Register new user (no transaction while the password is hashed; the user and its totals
+    // row are then saved in one short transaction)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public User registerUser(String username, String email, String password) {
         // Check if username already exists
         if (userRepository.existsByUsername(username)) {
@@ -35,18 +47,24 @@ public class UserService {
         User user = new User();
         user.setUsername(username);
         user.setEmail(email);
-        user.setPassword(passwordEncoder.encode(password));
+        user.setPassword(passwordHashingService.encode(password));
         
-        return userRepository.save(user);
+        return ledgerTotalsService.saveNewUser(user);
     }
     
-    // Authenticate user
+    // Authenticate user (no transaction while the password is hashed)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public User authenticateUser(String username, String password) {
-        Optional<User> userOpt = userRepository.findByUsername(username);
+        Optional<User> userOpt = userRepository.findByNaturalId(username);
         
         if (userOpt.isPresent()) {
             User user = userOpt.get();
-            if (passwordEncoder.matches(password, user.getPassword())) {
+            if (passwordHashingService.matches(password, user.getPassword())) {
+                // Transparently move old hashes to the configured work factor
+                if (passwordHashingService.needsRehash(user.getPassword())) {
+                    user.setPassword(passwordHashingService.encode(password));
+                    user = userRepository.save(user);
+                }
                 return user;
             }
         }
@@ -56,7 +74,7 @@ public class UserService {
     
     // Find user by username
     public Optional<User> findByUsername(String username) {
-        return userRepository.findByUsername(username);
+        return userRepository.findByNaturalId(username);
     }
     
     // Find user by ID
@@ -64,6 +82,14 @@ public class UserService {
         return userRepository.findById(id);
     }
     
+    // Get an unloaded reference to a user by ID (no query, no transaction). Goes through the
+    // EntityManager because the repository method would open a read-only transaction and borrow
+    // a connection just to build the proxy.
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public User getReference(Long id) {
+        return entityManager.getReference(User.class, id);
+    }
+    
     // Check if username exists
     public boolean usernameExists(String username) {
         return userRepository.existsByUsername(username);
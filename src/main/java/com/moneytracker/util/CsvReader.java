@@ -0,0 +1,97 @@
+package com.moneytracker.util;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+// Reads RFC 4180 CSV one record at a time (quoted fields may contain separators, "" and line breaks)
+public class CsvReader {
+    
+    // Longest record accepted, so an unclosed quote cannot pull the rest of a large file into memory
+    private static final int MAX_RECORD_LENGTH = 64 * 1024;
+    
+    private final Reader reader;
+    
+    private int line = 1;
+    private int recordLine;
+    private int pending = -2;
+    
+    public CsvReader(Reader reader) {
+        this.reader = reader instanceof BufferedReader ? reader : new BufferedReader(reader);
+    }
+    
+    // Line on which the record last returned by readRecord() started (1-based)
+    public int getRecordLine() {
+        return recordLine;
+    }
+    
+    // Next record's fields, or null at end of input
+    public List<String> readRecord() throws IOException {
+        int c = next();
+        if (c == -1) {
+            return null;
+        }
+        recordLine = line;
+        
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        int length = 0;
+        while (true) {
+            if (++length > MAX_RECORD_LENGTH) {
+                throw new RuntimeException("Record starting on line " + recordLine + " is too long");
+            }
+            if (quoted) {
+                if (c == -1) {
+                    throw new RuntimeException("Unclosed quote in record starting on line " + recordLine);
+                }
+                if (c == '"') {
+                    c = next();
+                    if (c != '"') {
+                        quoted = false;
+                        continue;
+                    }
+                } else if (c == '\n') {
+                    line++;
+                }
+                field.append((char) c);
+            } else if (c == '"' && field.length() == 0) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\r' || c == '\n' || c == -1) {
+                if (c == '\r') {
+                    c = next();
+                    if (c != '\n') {
+                        pending = c;
+                    }
+                }
+                if (c != -1) {
+                    line++;
+                }
+                fields.add(field.toString());
+                return fields;
+            } else {
+                field.append((char) c);
+            }
+            c = next();
+        }
+    }
+    
+    private int next() throws IOException {
+        if (pending != -2) {
+            int c = pending;
+            pending = -2;
+            return c;
+        }
+        int c = reader.read();
+        // Spreadsheet exports often start with a UTF-8 byte order mark
+        if (c == '\uFEFF' && line == 1 && recordLine == 0) {
+            c = reader.read();
+        }
+        return c;
+    }
+}
\ No newline at end of file
@@ -1,44 +1,134 @@
 package com.moneytracker.util;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.security.Key;
 import java.util.Date;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 @Component
 public class JwtUtil {
     
+    // Claim carrying the user's database id
+    public static final String USER_ID_CLAIM = "uid";
+    
     @Value("${jwt.secret}")
     private String secret;
     
     @Value("${jwt.expiration}")
     private Long expiration;
     
-    private Key getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes());
+    @Value("${jwt.cache.max-size:10000}")
+    private int cacheMaxSize;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    // Built once; both are immutable and thread-safe
+    private Key signingKey;
+    private JwtParser parser;
+    
+    // Tokens whose signature has already been verified, until they expire
+    private final Map<String, Claims> verifiedTokens = new ConcurrentHashMap<>();
+    
+    private Timer parseTimer;
+    private Counter cacheHits;
+    private Counter cacheMisses;
+    
+    @PostConstruct
+    public void init() {
+        signingKey = Keys.hmacShaKeyFor(secret.getBytes());
+        parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+        
+        parseTimer = Timer.builder("auth.jwt.parse")
+                .description("Time spent parsing tokens and checking their signature").register(meterRegistry);
+        cacheHits = Counter.builder("auth.jwt.cache").tag("result", "hit")
+                .description("Token verifications by verified-token cache result").register(meterRegistry);
+        cacheMisses = Counter.builder("auth.jwt.cache").tag("result", "miss")
+                .description("Token verifications by verified-token cache result").register(meterRegistry);
+        Gauge.builder("auth.jwt.cache.size", verifiedTokens, Map::size)
+                .description("Verified tokens currently cached").register(meterRegistry);
     }
     
     // Generate token for user
-    public String generateToken(String username) {
-        return createToken(username);
+    public String generateToken(String username, Long userId) {
+        return createToken(username, userId);
     }
     
     // Create token with claims
-    private String createToken(String subject) {
+    private String createToken(String subject, Long userId) {
         return Jwts.builder()
                 .setSubject(subject)
+                .claim(USER_ID_CLAIM, userId)
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
     
+    // Verify a token and return its claims, or null if it is invalid or expired.
+    // A token seen before is answered from the cache without any cryptography.
+    public Claims verifyToken(String token) {
+        Claims cached = verifiedTokens.get(token);
+        if (cached != null) {
+            cacheHits.increment();
+            if (cached.getExpiration().after(new Date())) {
+                return cached;
+            }
+            verifiedTokens.remove(token);
+            return null;
+        }
+        
+        cacheMisses.increment();
+        Claims claims;
+        long start = System.nanoTime();
+        try {
+            // The parser also rejects expired tokens
+            claims = parser.parseClaimsJws(token).getBody();
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        } finally {
+            parseTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        
+        if (claims.getExpiration() != null) {
+            if (verifiedTokens.size() >= cacheMaxSize) {
+                evictEntries();
+            }
+            verifiedTokens.put(token, claims);
+        }
+        return claims;
+    }
+    
+    // Make room in the cache: drop expired tokens first, then arbitrary ones down to half capacity
+    private void evictEntries() {
+        Date now = new Date();
+        verifiedTokens.values().removeIf(claims -> !claims.getExpiration().after(now));
+        
+        Iterator<String> iterator = verifiedTokens.keySet().iterator();
+        while (verifiedTokens.size() > cacheMaxSize / 2 && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+    
     // Extract username from token
     public String extractUsername(String token) {
         return extractClaim(token, Claims::getSubject);
@@ -57,21 +147,16 @@ public class JwtUtil {
     
     // Extract all claims from token
     private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-    }
-    
-    // Check if token is expired
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+        Claims claims = verifyToken(token);
+        if (claims == null) {
+            throw new JwtException("Invalid or expired token");
+        }
+        return claims;
     }
     
     // Validate token
     public Boolean validateToken(String token, String username) {
-        final String extractedUsername = extractUsername(token);
-        return (extractedUsername.equals(username) && !isTokenExpired(token));
+        Claims claims = verifyToken(token);
+        return claims != null && claims.getSubject().equals(username);
     }
-}
\ No newline at end of file
+}
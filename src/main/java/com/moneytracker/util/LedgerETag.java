@@ -0,0 +1,41 @@
+package com.moneytracker.util;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+// Strong ETags for a user's list responses, derived from the user's ledger version
+public class LedgerETag {
+    
+    // Clients may store list responses but must revalidate them on every use
+    public static final CacheControl CACHE_CONTROL = CacheControl.noCache().cachePrivate();
+    
+    private LedgerETag() {}
+    
+    // ETag for a user at a ledger version
+    public static String of(Long userId, long ledgerVersion) {
+        return "\"" + userId + "-" + ledgerVersion + "\"";
+    }
+    
+    // True when an If-None-Match header lists this ETag or "*" (If-None-Match uses weak comparison)
+    public static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    // 304 response for a matching If-None-Match
+    public static ResponseEntity<?> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(CACHE_CONTROL).build();
+    }
+}
\ No newline at end of file
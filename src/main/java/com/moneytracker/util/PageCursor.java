@@ -0,0 +1,58 @@
+package com.moneytracker.util;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+// Opaque keyset cursor for the transaction history: the (date, id) of the last row on a page.
+// Statement cursors also carry the running balance the next page starts from.
+public class PageCursor {
+    
+    private final LocalDateTime date;
+    private final Long id;
+    private final BigDecimal balance;
+    
+    public PageCursor(LocalDateTime date, Long id) {
+        this(date, id, null);
+    }
+    
+    public PageCursor(LocalDateTime date, Long id, BigDecimal balance) {
+        this.date = date;
+        this.id = id;
+        this.balance = balance;
+    }
+    
+    public LocalDateTime getDate() {
+        return date;
+    }
+    
+    public Long getId() {
+        return id;
+    }
+    
+    public BigDecimal getBalance() {
+        return balance;
+    }
+    
+    // Encode cursor as a URL-safe token
+    public String encode() {
+        String raw = date + "|" + id + (balance == null ? "" : "|" + balance.toPlainString());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    // Decode a token produced by encode()
+    public static PageCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|");
+            if (parts.length < 2 || parts.length > 3) {
+                throw new IllegalArgumentException("Expected 2 or 3 fields, got " + parts.length);
+            }
+            return new PageCursor(LocalDateTime.parse(parts[0]), Long.valueOf(parts[1]),
+                                  parts.length == 3 ? new BigDecimal(parts[2]) : null);
+        } catch (RuntimeException e) {
+            throw new RuntimeException("Invalid cursor", e);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,144 @@
+package com.moneytracker.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+// Database work done on behalf of the current request: statements prepared (and how often each
+// SQL string was), rows read, entities loaded and lazy collections initialized. Opened and closed
+// by RequestMetricsFilter around each request and filled by the hooks in HibernateMetricsConfig
+// and RowCountingDataSource; work outside a request is not counted.
+public class RequestStatistics {
+    
+    private static final ThreadLocal<RequestStatistics> CURRENT = new ThreadLocal<>();
+    
+    private long statements;
+    private long rows;
+    private long entityLoads;
+    private long collectionFetches;
+    private final Map<String, Integer> statementCounts = new HashMap<>();
+    // Limits of the request's endpoint, once known; checked as the work happens
+    private SqlBudget budget;
+    
+    // Start counting for the request on this thread
+    public static RequestStatistics begin() {
+        RequestStatistics statistics = new RequestStatistics();
+        CURRENT.set(statistics);
+        return statistics;
+    }
+    
+    // Stop counting on this thread
+    public static void end() {
+        CURRENT.remove();
+    }
+    
+    // The current request's counters, or null outside a request
+    public static RequestStatistics current() {
+        return CURRENT.get();
+    }
+    
+    // Count the database work of a block of code, such as a service call in a test, and return
+    // the counters. Statements run on other threads are not included.
+    public static RequestStatistics measure(Runnable work) {
+        return measureResult(() -> {
+            work.run();
+            return null;
+        }).statistics();
+    }
+    
+    // As measure(Runnable), also keeping the block's result
+    public static <T> Measured<T> measureResult(Supplier<T> work) {
+        RequestStatistics outer = CURRENT.get();
+        RequestStatistics statistics = begin();
+        try {
+            return new Measured<>(work.get(), statistics);
+        } finally {
+            if (outer != null) {
+                CURRENT.set(outer);
+            } else {
+                end();
+            }
+        }
+    }
+    
+    public record Measured<T>(T result, RequestStatistics statistics) {
+    }
+    
+    public static void statementPrepared(String sql) {
+        RequestStatistics statistics = CURRENT.get();
+        if (statistics != null) {
+            statistics.statements++;
+            int count = statistics.statementCounts.merge(sql, 1, Integer::sum);
+            if (statistics.budget != null) {
+                statistics.budget.checkStatement(statistics, sql, count);
+            }
+        }
+    }
+    
+    public static void rowRead() {
+        RequestStatistics statistics = CURRENT.get();
+        if (statistics != null) {
+            statistics.rows++;
+            if (statistics.budget != null) {
+                statistics.budget.checkRows(statistics);
+            }
+        }
+    }
+    
+    public static void entityLoaded() {
+        RequestStatistics statistics = CURRENT.get();
+        if (statistics != null) {
+            statistics.entityLoads++;
+        }
+    }
+    
+    public static void collectionFetched() {
+        RequestStatistics statistics = CURRENT.get();
+        if (statistics != null) {
+            statistics.collectionFetches++;
+        }
+    }
+    
+    // SQL strings run more than threshold times, most repeated first: the usual sign of an N+1
+    // load, where one query per parent row fetches its children
+    public List<String> repeatedStatements(int threshold) {
+        List<String> repeated = new ArrayList<>();
+        statementCounts.entrySet().stream()
+                .filter(entry -> entry.getValue() > threshold)
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+                .forEach(entry -> repeated.add(entry.getValue() + "x " + entry.getKey()));
+        return repeated;
+    }
+    
+    public SqlBudget getBudget() {
+        return budget;
+    }
+    
+    public void setBudget(SqlBudget budget) {
+        this.budget = budget;
+    }
+    
+    public long getStatements() {
+        return statements;
+    }
+    
+    public long getRows() {
+        return rows;
+    }
+    
+    // How often each SQL string was prepared
+    public Map<String, Integer> getStatementCounts() {
+        return Collections.unmodifiableMap(statementCounts);
+    }
+    
+    public long getEntityLoads() {
+        return entityLoads;
+    }
+    
+    public long getCollectionFetches() {
+        return collectionFetches;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,85 @@
+package com.moneytracker.util;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+// Wraps a DataSource so that every row a result set moves onto counts towards the current
+// RequestStatistics. Connections, statements and result sets handed out are wrapped the same
+// way; everything else goes straight to the pool's objects. unwrap() still reaches the pool,
+// so pool metrics and health checks see the real DataSource.
+public class RowCountingDataSource {
+    
+    private RowCountingDataSource() {
+    }
+    
+    public static DataSource wrap(DataSource dataSource) {
+        // Closeable, so the pool is still shut down with the application context
+        return (DataSource) Proxy.newProxyInstance(RowCountingDataSource.class.getClassLoader(),
+                new Class<?>[] {DataSource.class, Closeable.class}, new Handler(dataSource));
+    }
+    
+    private static class Handler implements InvocationHandler {
+        
+        private final Object target;
+        
+        Handler(Object target) {
+            this.target = target;
+        }
+        
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            // Identity, so a proxy can be a map key (Spring binds connections by DataSource)
+            switch (method.getName()) {
+                case "equals":
+                    if (method.getParameterCount() == 1) {
+                        return proxy == args[0];
+                    }
+                    break;
+                case "hashCode":
+                    if (method.getParameterCount() == 0) {
+                        return System.identityHashCode(proxy);
+                    }
+                    break;
+                default:
+                    break;
+            }
+            
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            
+            if (target instanceof ResultSet) {
+                if (Boolean.TRUE.equals(result) && method.getName().equals("next")) {
+                    RequestStatistics.rowRead();
+                }
+                return result;
+            }
+            if (result instanceof ResultSet resultSet) {
+                return wrap(resultSet, ResultSet.class);
+            }
+            if (result instanceof Statement statement && method.getReturnType() != Object.class) {
+                return wrap(statement, method.getReturnType());
+            }
+            if (result instanceof Connection connection && method.getReturnType() == Connection.class) {
+                return wrap(connection, Connection.class);
+            }
+            return result;
+        }
+        
+        // Proxy with the interface the method declared (Statement, PreparedStatement, ...)
+        private static Object wrap(Object target, Class<?> type) {
+            return Proxy.newProxyInstance(RowCountingDataSource.class.getClassLoader(),
+                    new Class<?>[] {type}, new Handler(target));
+        }
+    }
+}
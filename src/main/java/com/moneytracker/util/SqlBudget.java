@@ -0,0 +1,47 @@
+package com.moneytracker.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// SQL limits for one request: statements, rows read and repeats of a single statement (0 = no
+// limit). With fail set, the statement or row that crosses a limit throws
+// SqlBudgetExceededException, which rolls back the request's transaction; otherwise the
+// request completes and violations() lists what went over for the log.
+public record SqlBudget(String endpoint, int maxStatements, long maxRows, int repeatThreshold, boolean fail) {
+    
+    void checkStatement(RequestStatistics statistics, String sql, int count) {
+        if (!fail) {
+            return;
+        }
+        if (maxStatements > 0 && statistics.getStatements() > maxStatements) {
+            throw new SqlBudgetExceededException(endpoint + " ran more than " + maxStatements + " SQL statements");
+        }
+        if (repeatThreshold > 0 && count > repeatThreshold) {
+            throw new SqlBudgetExceededException(endpoint + " ran one statement more than " + repeatThreshold +
+                    " times (N+1?): " + sql);
+        }
+    }
+    
+    void checkRows(RequestStatistics statistics) {
+        if (fail && maxRows > 0 && statistics.getRows() > maxRows) {
+            throw new SqlBudgetExceededException(endpoint + " read more than " + maxRows + " rows");
+        }
+    }
+    
+    // What the finished request went over, if anything
+    public List<String> violations(RequestStatistics statistics) {
+        List<String> violations = new ArrayList<>();
+        if (maxStatements > 0 && statistics.getStatements() > maxStatements) {
+            violations.add(statistics.getStatements() + " statements (budget " + maxStatements + ")");
+        }
+        if (maxRows > 0 && statistics.getRows() > maxRows) {
+            violations.add(statistics.getRows() + " rows (budget " + maxRows + ")");
+        }
+        if (repeatThreshold > 0) {
+            for (String repeated : statistics.repeatedStatements(repeatThreshold)) {
+                violations.add("repeated " + repeated);
+            }
+        }
+        return violations;
+    }
+}
@@ -0,0 +1,9 @@
+package com.moneytracker.util;
+
+// Thrown while a request runs when it goes over its SQL budget and sql.budget.fail is set
+public class SqlBudgetExceededException extends RuntimeException {
+    
+    public SqlBudgetExceededException(String message) {
+        super(message);
+    }
+}
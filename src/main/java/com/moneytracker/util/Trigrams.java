@@ -0,0 +1,22 @@
+package com.moneytracker.util;
+
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+
+// Three-character slices of text, lowercased the way the transaction_trigrams rows are
+public class Trigrams {
+    
+    private Trigrams() {
+    }
+    
+    // Distinct trigrams of the text, in order of first appearance; empty if shorter than three
+    public static Set<String> of(String text) {
+        String lower = text.toLowerCase(Locale.ROOT);
+        Set<String> grams = new LinkedHashSet<>();
+        for (int i = 0; i + 3 <= lower.length(); i++) {
+            grams.add(lower.substring(i, i + 3));
+        }
+        return grams;
+    }
+}
\ No newline at end of file
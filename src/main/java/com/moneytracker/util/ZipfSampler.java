@@ -0,0 +1,33 @@
+package com.moneytracker.util;
+
+import java.util.Arrays;
+import java.util.Random;
+
+// Draws ranks 0..n-1 with probability proportional to 1 / (rank + 1)^exponent, so a few low
+// ranks get most of the draws. Exponent 0 is uniform. Immutable; safe to share across threads.
+public class ZipfSampler {
+    
+    // cumulative[i] = probability of a rank <= i
+    private final double[] cumulative;
+    
+    public ZipfSampler(int n, double exponent) {
+        if (n < 1) {
+            throw new IllegalArgumentException("A Zipf distribution needs at least one rank");
+        }
+        cumulative = new double[n];
+        double sum = 0;
+        for (int i = 0; i < n; i++) {
+            sum += 1.0 / Math.pow(i + 1, exponent);
+            cumulative[i] = sum;
+        }
+        for (int i = 0; i < n; i++) {
+            cumulative[i] /= sum;
+        }
+    }
+    
+    public int next(Random random) {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        int rank = index >= 0 ? index : -index - 1;
+        return Math.min(rank, cumulative.length - 1);
+    }
+}
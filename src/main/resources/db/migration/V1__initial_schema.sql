@@ -0,0 +1,70 @@
+-- Initial schema. Every repository lookup is served by an index:
+--   users:               username / email (unique)
+--   people:              (user_id, name) unique - findByNameAndUser, existsByNameAndUser, findByUserOrderByNameAsc
+--   transactions:        (user_id, date, id)    - findByUserOrderByDateDesc, keyset pages, summary rebuild
+--                        (person_id, date, id)  - findByPersonOrderByDateDesc, findByUserAndPersonOrderByDateDesc
+--   transaction_rollups: (user_id, person_id, granularity, bucket, type) unique - upserts
+--                        (user_id, granularity, bucket) - range queries
+--                        (person_id)            - person deletion
+
+CREATE TABLE users (
+    id       BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    username VARCHAR(255) NOT NULL,
+    email    VARCHAR(255),
+    password VARCHAR(255) NOT NULL,
+    CONSTRAINT uk_users_username UNIQUE (username),
+    CONSTRAINT uk_users_email UNIQUE (email)
+);
+
+CREATE TABLE people (
+    id      BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    name    VARCHAR(255) NOT NULL,
+    balance NUMERIC(10, 2) DEFAULT 0,
+    version BIGINT DEFAULT 0,
+    CONSTRAINT fk_people_user FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT uk_people_user_name UNIQUE (user_id, name)
+);
+
+CREATE TABLE transactions (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id     BIGINT NOT NULL,
+    person_id   BIGINT NOT NULL,
+    amount      NUMERIC(10, 2) NOT NULL,
+    description VARCHAR(500),
+    type        VARCHAR(255) NOT NULL CHECK (type IN ('SEND', 'RECEIVE')),
+    date        TIMESTAMP(6) NOT NULL,
+    CONSTRAINT fk_transactions_user FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT fk_transactions_person FOREIGN KEY (person_id) REFERENCES people (id)
+);
+
+CREATE INDEX idx_transactions_user_date ON transactions (user_id, date, id);
+CREATE INDEX idx_transactions_person_date ON transactions (person_id, date, id);
+
+CREATE TABLE ledger_totals (
+    user_id        BIGINT NOT NULL PRIMARY KEY,
+    owed_to_user   NUMERIC(19, 2) NOT NULL,
+    user_owes      NUMERIC(19, 2) NOT NULL,
+    sent_total     NUMERIC(19, 2) NOT NULL,
+    send_count     BIGINT NOT NULL,
+    received_total NUMERIC(19, 2) NOT NULL,
+    receive_count  BIGINT NOT NULL,
+    CONSTRAINT fk_ledger_totals_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+CREATE TABLE transaction_rollups (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id     BIGINT NOT NULL,
+    person_id   BIGINT NOT NULL,
+    granularity VARCHAR(10) NOT NULL CHECK (granularity IN ('DAY', 'MONTH')),
+    bucket      DATE NOT NULL,
+    type        VARCHAR(255) NOT NULL CHECK (type IN ('SEND', 'RECEIVE')),
+    total       NUMERIC(19, 2) NOT NULL,
+    tx_count    BIGINT NOT NULL,
+    CONSTRAINT fk_rollups_user FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT fk_rollups_person FOREIGN KEY (person_id) REFERENCES people (id),
+    CONSTRAINT uk_rollups_key UNIQUE (user_id, person_id, granularity, bucket, type)
+);
+
+CREATE INDEX idx_rollups_user_bucket ON transaction_rollups (user_id, granularity, bucket);
+CREATE INDEX idx_rollups_person ON transaction_rollups (person_id);
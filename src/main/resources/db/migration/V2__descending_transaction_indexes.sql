@@ -0,0 +1,19 @@
+-- Keyset pages read transactions newest-first. H2 only walks an index in ORDER BY
+-- order when the index columns and directions match the sort exactly, so the
+-- transaction indexes are rebuilt descending on (date, id).
+--
+-- The foreign keys are dropped first and re-added afterwards so that H2 backs them
+-- with these composite indexes instead of the single-column FK indexes it created
+-- in V1; otherwise the planner prefers those for joins and sorts every row.
+
+ALTER TABLE transactions DROP CONSTRAINT fk_transactions_user;
+ALTER TABLE transactions DROP CONSTRAINT fk_transactions_person;
+
+DROP INDEX idx_transactions_user_date;
+DROP INDEX idx_transactions_person_date;
+
+CREATE INDEX idx_transactions_user_date ON transactions (user_id, date DESC, id DESC);
+CREATE INDEX idx_transactions_person_date ON transactions (person_id, date DESC, id DESC);
+
+ALTER TABLE transactions ADD CONSTRAINT fk_transactions_user FOREIGN KEY (user_id) REFERENCES users (id);
+ALTER TABLE transactions ADD CONSTRAINT fk_transactions_person FOREIGN KEY (person_id) REFERENCES people (id);
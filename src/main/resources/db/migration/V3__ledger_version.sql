@@ -0,0 +1,4 @@
+-- Per-user ledger version: bumped in the same transaction as every change to the user's
+-- people or transactions, and used as the ETag of the list endpoints.
+
+ALTER TABLE ledger_totals ADD COLUMN ledger_version BIGINT DEFAULT 0 NOT NULL;
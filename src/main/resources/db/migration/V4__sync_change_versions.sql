@@ -0,0 +1,19 @@
+-- Delta sync: rows remember the ledger version of the write that last changed them, and
+-- removed rows leave a tombstone, so GET /sync?since=<version> reads only what changed.
+
+ALTER TABLE people ADD COLUMN change_version BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE transactions ADD COLUMN change_version BIGINT DEFAULT 0 NOT NULL;
+
+CREATE INDEX idx_people_user_change ON people (user_id, change_version);
+CREATE INDEX idx_transactions_user_change ON transactions (user_id, change_version);
+
+CREATE TABLE ledger_tombstones (
+    id             BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id        BIGINT NOT NULL,
+    entity_type    VARCHAR(20) NOT NULL CHECK (entity_type IN ('PERSON', 'TRANSACTION')),
+    entity_id      BIGINT NOT NULL,
+    change_version BIGINT NOT NULL,
+    CONSTRAINT fk_tombstones_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+CREATE INDEX idx_tombstones_user_change ON ledger_tombstones (user_id, change_version);
@@ -0,0 +1,14 @@
+-- Pooled sequences for people and transaction ids, so Hibernate can batch inserts (bulk import).
+-- With IDENTITY ids Hibernate has to run every insert on its own to read back the generated key.
+--
+-- With allocationSize = 50 Hibernate reads each sequence value as the top of a block of 50 ids,
+-- so each sequence restarts 50 above the current maximum id. The identity defaults are dropped
+-- so that the sequences are the only source of ids.
+
+CREATE SEQUENCE people_seq START WITH 50 INCREMENT BY 50;
+ALTER SEQUENCE people_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 50 FROM people);
+ALTER TABLE people ALTER COLUMN id DROP IDENTITY;
+
+CREATE SEQUENCE transactions_seq START WITH 50 INCREMENT BY 50;
+ALTER SEQUENCE transactions_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 50 FROM transactions);
+ALTER TABLE transactions ALTER COLUMN id DROP IDENTITY;
@@ -0,0 +1,7 @@
+-- People deleted with people.delete.soft=true stay in place, flagged, until the background purge
+-- has removed their transactions in small batches; reads skip flagged people and their history.
+-- The purge finds them through the index.
+
+ALTER TABLE people ADD COLUMN deleted BOOLEAN DEFAULT FALSE NOT NULL;
+
+CREATE INDEX idx_people_deleted ON people (deleted);
@@ -0,0 +1,5 @@
+-- Transaction search filtered by type reads (user_id, type) newest-first through this index,
+-- with the date range as its index range. Searches by person use idx_transactions_person_date
+-- and unfiltered ones idx_transactions_user_date; amount bounds are checked on the rows read.
+
+CREATE INDEX idx_transactions_user_type_date ON transactions (user_id, type, date DESC, id DESC);
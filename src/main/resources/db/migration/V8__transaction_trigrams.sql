@@ -0,0 +1,23 @@
+-- Inverted index for substring search over transaction descriptions: one row per distinct
+-- three-character slice of the lowercased description. A search walks one slice's rows of a
+-- user newest-first through idx_trigrams_user_gram_date and checks each candidate's description.
+-- Rows are added by the write paths with the same INSERT ... SELECT as the backfill below, and
+-- go away with their transaction through the cascading foreign key.
+
+CREATE TABLE transaction_trigrams (
+    user_id        BIGINT NOT NULL,
+    gram           VARCHAR(3) NOT NULL,
+    date           TIMESTAMP(6) NOT NULL,
+    transaction_id BIGINT NOT NULL
+);
+
+CREATE UNIQUE INDEX idx_trigrams_user_gram_date ON transaction_trigrams (user_id, gram, date DESC, transaction_id DESC);
+CREATE INDEX idx_trigrams_transaction ON transaction_trigrams (transaction_id);
+
+ALTER TABLE transaction_trigrams ADD CONSTRAINT fk_trigrams_transaction
+    FOREIGN KEY (transaction_id) REFERENCES transactions (id) ON DELETE CASCADE;
+
+INSERT INTO transaction_trigrams (user_id, gram, date, transaction_id)
+SELECT DISTINCT t.user_id, SUBSTRING(LOWER(t.description), r.X, 3), t.date, t.id
+FROM transactions t JOIN SYSTEM_RANGE(1, 498) r ON r.X <= CHAR_LENGTH(t.description) - 2
+WHERE t.description IS NOT NULL;
@@ -0,0 +1,13 @@
+-- Soft-deleted people keep their name. Uniqueness of (user_id, name) only holds among live
+-- people: deleted_id is 0 for a live person and the person's own id once it is deleted, so a
+-- deleted row never collides with a live one or with another deleted one. (user, name,
+-- deleted_id) is also the natural id Hibernate resolves and caches, so a lookup with
+-- deleted_id = 0 can only find the live person.
+
+ALTER TABLE people ADD COLUMN deleted_id BIGINT DEFAULT 0 NOT NULL;
+
+-- People soft-deleted before this version were renamed out of the way; their old names are gone
+UPDATE people SET deleted_id = id WHERE deleted = TRUE;
+
+ALTER TABLE people DROP CONSTRAINT uk_people_user_name;
+ALTER TABLE people ADD CONSTRAINT uk_people_user_name UNIQUE (user_id, name, deleted_id);
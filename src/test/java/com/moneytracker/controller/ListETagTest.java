@@ -0,0 +1,83 @@
+package com.moneytracker.controller;
+
+import com.moneytracker.entity.User;
+import com.moneytracker.service.LedgerFixture;
+import com.moneytracker.util.LedgerETag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Conditional GETs of the list endpoints: 304 without a body while the ledger is unchanged, a
+// new ETag once it changes
+class ListETagTest extends LedgerFixture {
+    
+    @Autowired
+    private PersonController personController;
+    
+    @Autowired
+    private TransactionController transactionController;
+    
+    @Test
+    void peopleListIsNotModifiedUntilTheLedgerChanges() {
+        ResponseEntity<?> first = personController.getAllPeople(null, user);
+        String etag = first.getHeaders().getETag();
+        assertEquals(HttpStatus.OK, first.getStatusCode());
+        assertNotNull(etag);
+        assertNotNull(first.getHeaders().getCacheControl());
+        
+        ResponseEntity<?> unchanged = personController.getAllPeople(etag, user);
+        assertEquals(HttpStatus.NOT_MODIFIED, unchanged.getStatusCode());
+        assertEquals(etag, unchanged.getHeaders().getETag());
+        assertNull(unchanged.getBody());
+        
+        transactionService.sendMoney("Alice", new BigDecimal("10.00"), "lunch", user);
+        ResponseEntity<?> changed = personController.getAllPeople(etag, user);
+        assertEquals(HttpStatus.OK, changed.getStatusCode());
+        assertNotEquals(etag, changed.getHeaders().getETag());
+        assertNotNull(changed.getBody());
+    }
+    
+    @Test
+    void transactionListIsNotModifiedUntilTheLedgerChanges() {
+        transactionService.sendMoney("Alice", new BigDecimal("10.00"), "lunch", user);
+        String etag = transactionController.getAllTransactions(null, user).getHeaders().getETag();
+        
+        assertEquals(HttpStatus.NOT_MODIFIED, transactionController.getAllTransactions(etag, user).getStatusCode());
+        
+        personService.addPerson("Bob", user);
+        assertEquals(HttpStatus.OK, transactionController.getAllTransactions(etag, user).getStatusCode());
+    }
+    
+    @Test
+    void anotherUsersETagDoesNotMatch() {
+        // Both ledgers are at the same version; the user id keeps their tags apart
+        String etag = personController.getAllPeople(null, user).getHeaders().getETag();
+        User other = newUser();
+        personService.addPerson("Alice", other);
+        
+        assertEquals(HttpStatus.OK, personController.getAllPeople(etag, other).getStatusCode());
+    }
+    
+    @Test
+    void ifNoneMatchListsWeakTagsAndWildcards() {
+        String etag = LedgerETag.of(7L, 3);
+        
+        assertTrue(LedgerETag.matches(etag, etag));
+        assertTrue(LedgerETag.matches("W/" + etag, etag));
+        assertTrue(LedgerETag.matches("\"7-2\", " + etag, etag));
+        assertTrue(LedgerETag.matches("*", etag));
+        assertFalse(LedgerETag.matches("\"7-2\"", etag));
+        assertFalse(LedgerETag.matches(" ", etag));
+        assertFalse(LedgerETag.matches(null, etag));
+    }
+}
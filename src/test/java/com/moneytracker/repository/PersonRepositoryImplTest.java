@@ -0,0 +1,99 @@
+package com.moneytracker.repository;
+
+import com.moneytracker.entity.Person;
+import com.moneytracker.entity.User;
+import com.moneytracker.service.LedgerFixture;
+import com.moneytracker.service.LedgerTotalsService;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// In-place person updates against the second-level cache and the caller's persistence context
+class PersonRepositoryImplTest extends LedgerFixture {
+    
+    @Autowired
+    private LedgerTotalsService ledgerTotalsService;
+    
+    @Autowired
+    private PersonRepository personRepository;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Test
+    void balanceUpdateLeavesThePersonManagedWithTheNewBalance() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            User managedUser = userRepository.findById(user.getId()).orElseThrow();
+            Person managedPerson = personRepository.findById(alice.getId()).orElseThrow();
+            
+            long version = ledgerTotalsService.beginChange(user.getId());
+            assertEquals(1, personRepository.applyBalanceDelta(alice.getId(), new BigDecimal("5.00"), version));
+            
+            assertTrue(entityManager.contains(managedPerson));
+            assertTrue(entityManager.contains(managedUser));
+            assertEquals(0, new BigDecimal("5.00").compareTo(managedPerson.getBalance()));
+            assertEquals(version, managedPerson.getChangeVersion());
+        });
+    }
+    
+    @Test
+    void balanceUpdateKeepsOtherPeopleCached() {
+        Long bobId = personService.addPerson("Bob", user).getId();
+        personService.findByNameAndUser("Alice", user).orElseThrow();
+        personService.findByNameAndUser("Bob", user).orElseThrow();
+        Cache cache = entityManager.getEntityManagerFactory().getCache();
+        assertTrue(cache.contains(Person.class, bobId));
+        
+        transactionService.sendMoney("Alice", new BigDecimal("10.00"), null, user);
+        
+        assertTrue(cache.contains(Person.class, bobId));
+    }
+    
+    @Test
+    void cachedPersonShowsTheNewBalance() {
+        // Warm the natural-id and entity caches
+        assertEquals(0, personService.findByNameAndUser("Alice", user).orElseThrow().getBalance().signum());
+        
+        transactionService.sendMoney("Alice", new BigDecimal("10.00"), null, user);
+        
+        Person reloaded = personService.findByNameAndUser("Alice", user).orElseThrow();
+        assertEquals(0, new BigDecimal("10.00").compareTo(reloaded.getBalance()));
+    }
+    
+    @Test
+    void softDeletedNameResolvesToTheNextPersonWithIt() {
+        personService.findByNameAndUser("Alice", user).orElseThrow();
+        
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                assertEquals(1, personRepository.markDeleted(alice.getId(), ledgerTotalsService.beginChange(user.getId()))));
+        
+        assertTrue(personService.findByNameAndUser("Alice", user).isEmpty());
+        assertFalse(personService.personExists("Alice", user));
+        Long newId = personService.addPerson("Alice", user).getId();
+        assertNotEquals(alice.getId(), newId);
+        assertEquals(newId, personService.findByNameAndUser("Alice", user).orElseThrow().getId());
+        
+        // The deleted row kept its name
+        Person deleted = personRepository.findById(alice.getId()).orElseThrow();
+        assertTrue(deleted.isDeleted());
+        assertEquals("Alice", deleted.getName());
+        assertEquals(alice.getId(), deleted.getDeletedId());
+    }
+}
@@ -0,0 +1,45 @@
+package com.moneytracker.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+// The CSV formula guard: cells a spreadsheet would evaluate are written as text, and every
+// guarded value reads back as the original
+class ExportFormulaGuardTest {
+    
+    @Test
+    void formulaStartsAreWrittenAsText() {
+        for (String value : List.of("=SUM(A1:A2)", "+1", "-5 refund", "@cmd", "\tx", "\rx")) {
+            assertEquals("'" + value, ExportService.guardFormula(value));
+        }
+    }
+    
+    @Test
+    void leadingApostrophesAreGuardedToo() {
+        // Otherwise a stored '=total would be exported as is and imported as =total
+        assertEquals("''=total", ExportService.guardFormula("'=total"));
+        assertEquals("''", ExportService.guardFormula("'"));
+        assertEquals("'quoted", ExportService.unguardFormula(ExportService.guardFormula("'quoted")));
+    }
+    
+    @Test
+    void otherValuesAreWrittenUnchanged() {
+        for (String value : List.of("lunch", "5 - 3", "a=b", "it's", "")) {
+            assertEquals(value, ExportService.guardFormula(value));
+        }
+        assertNull(ExportService.guardFormula(null));
+    }
+    
+    @Test
+    void guardedValuesReadBackUnchanged() {
+        for (String value : List.of("=SUM(A1:A2)", "+1", "-5 refund", "@cmd", "\tx", "lunch", "it's",
+                "'", "''", "'=total", "'lunch", "")) {
+            assertEquals(value, ExportService.unguardFormula(ExportService.guardFormula(value)));
+        }
+        assertNull(ExportService.unguardFormula(ExportService.guardFormula(null)));
+    }
+}
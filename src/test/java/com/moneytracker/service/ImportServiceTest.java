@@ -0,0 +1,198 @@
+package com.moneytracker.service;
+
+import com.moneytracker.dto.ExportFormat;
+import com.moneytracker.dto.ImportResult;
+import com.moneytracker.dto.ImportRowError;
+import com.moneytracker.dto.PersonView;
+import com.moneytracker.dto.TransactionView;
+import com.moneytracker.entity.LedgerTotals;
+import com.moneytracker.entity.User;
+import com.moneytracker.repository.PersonRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ImportServiceTest extends LedgerFixture {
+    
+    private static final String HEADER = "person,type,amount,date,description\n";
+    private static final LocalDate DAY = LocalDate.of(2024, 5, 10);
+    
+    @Autowired
+    private ImportService importService;
+    
+    @Autowired
+    private ExportService exportService;
+    
+    @Autowired
+    private RollupService rollupService;
+    
+    @Autowired
+    private LedgerTotalsService ledgerTotalsService;
+    
+    @Autowired
+    private PersonRepository personRepository;
+    
+    @Test
+    void rejectsInvalidRowsWithTheirLinesAndImportsTheRest() throws IOException {
+        ImportResult result = importService.importCsv(user, new StringReader(HEADER +
+                "Alice,SEND,10.00,2024-03-01,ok\n" +
+                "Bob,SPEND,5,,bad type\n" +
+                "Carol,RECEIVE,abc,,bad amount\n" +
+                "Dave,SEND,1.234,,too precise\n" +
+                ",SEND,1,,no person\n" +
+                "Eve,SEND,1,2024-13-01,bad date\n" +
+                "Alice,RECEIVE,2.50,2024-03-02,ok\n" +
+                "Frank,,,,\n"));
+        
+        assertEquals(2, result.getTransactionsImported());
+        // Alice already exists
+        assertEquals(1, result.getPeopleCreated());
+        assertEquals(5, result.getRowsRejected());
+        assertEquals(List.of(3, 4, 5, 6, 7), result.getErrors().stream().map(ImportRowError::getLine).toList());
+        assertTrue(result.getErrors().get(0).getMessage().contains("SEND or RECEIVE"));
+        assertTrue(result.getErrors().get(1).getMessage().contains("Invalid amount"));
+        assertTrue(result.getErrors().get(2).getMessage().contains("2 decimal places"));
+        assertTrue(result.getErrors().get(4).getMessage().contains("Invalid date"));
+        
+        // Rejected rows create nobody; the person-only row does
+        assertEquals(List.of("Alice", "Frank"),
+                personService.getAllPeopleForUser(user).stream().map(PersonView::getName).toList());
+        assertBalance("Alice", "7.50");
+    }
+    
+    @Test
+    void importsAcrossIdBlocksAndInsertBatches() throws IOException {
+        // 120 new people and 360 transactions: several JDBC batches of 50 and several blocks of
+        // 50 ids from each pooled sequence, with people and transactions interleaved
+        personService.addPerson("Existing", user);
+        StringBuilder csv = new StringBuilder(HEADER);
+        for (int i = 0; i < 120; i++) {
+            csv.append("Person ").append(i).append(",SEND,").append(i + 1).append(".00,").append(DAY).append(",\n");
+            csv.append("Existing,RECEIVE,1.00,").append(DAY).append(",\n");
+            csv.append("Person ").append(i).append(",RECEIVE,0.50,").append(DAY).append(",\n");
+        }
+        
+        ImportResult result = importService.importCsv(user, new StringReader(csv.toString()));
+        
+        assertEquals(120, result.getPeopleCreated());
+        assertEquals(360, result.getTransactionsImported());
+        assertEquals(0, result.getRowsRejected());
+        assertEquals(122, personService.getAllPeopleForUser(user).size());
+        for (int i = 0; i < 120; i++) {
+            assertBalance("Person " + i, new BigDecimal(i + 1).subtract(new BigDecimal("0.50")).toPlainString());
+        }
+        assertBalance("Existing", "-120.00");
+        
+        LedgerTotals totals = ledgerTotalsService.getTotals(user.getId());
+        assertEquals(120, totals.getSendCount());
+        assertEquals(0, new BigDecimal("7260.00").compareTo(totals.getSentTotal()));
+        assertEquals(240, totals.getReceiveCount());
+        assertEquals(0, new BigDecimal("180.00").compareTo(totals.getReceivedTotal()));
+    }
+    
+    @Test
+    void laterImportsAddToTheRollupsOfEarlierOnes() throws IOException {
+        importService.importCsv(user, new StringReader(HEADER +
+                "Alice,SEND,10.00," + DAY + ",first\n" +
+                "Alice,SEND,5.00," + DAY.minusMonths(1) + ",older month\n"));
+        transactionService.receiveMoney("Alice", new BigDecimal("1.00"), "live", user);
+        importService.importCsv(user, new StringReader(HEADER +
+                "Alice,RECEIVE,3.00," + DAY + ",same day\n" +
+                "Bob,SEND,2.00," + DAY + ",new person\n"));
+        
+        // Only the imported rows were added: the day and month buckets carry every transaction once
+        assertRollupsMatchBalance("Alice");
+        assertRollupsMatchBalance("Bob");
+        assertEquals(0, new BigDecimal("12.00").compareTo(
+                rollupService.balanceAtEndOf(personId("Alice"), DAY)));
+    }
+    
+    @Test
+    void exportedCsvImportsBackUnchanged() throws IOException {
+        personService.addPerson("Smith, John", user);
+        personService.addPerson("=cmd", user);
+        transactionService.sendMoney("Smith, John", new BigDecimal("12.34"), "say \"hi\"", user);
+        transactionService.receiveMoney("Smith, John", new BigDecimal("2.00"), "two\nlines", user);
+        transactionService.sendMoney("=cmd", new BigDecimal("1.00"), "=SUM(A1:A2)", user);
+        transactionService.sendMoney("=cmd", new BigDecimal("3.00"), "-5 refund", user);
+        transactionService.receiveMoney("=cmd", new BigDecimal("0.01"), null, user);
+        transactionService.sendMoney("Alice", new BigDecimal("4.00"), "plain", user);
+        transactionService.sendMoney("Alice", new BigDecimal("0.50"), "'=total", user);
+        
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.exportTransactions(user, ExportFormat.CSV, out);
+        String exported = out.toString(StandardCharsets.UTF_8);
+        // Cells a spreadsheet would evaluate are written as text
+        assertTrue(exported.contains(",'=SUM(A1:A2)"), exported);
+        assertTrue(exported.contains(",'=cmd,"), exported);
+        assertFalse(exported.contains(",=SUM"), exported);
+        
+        User copy = newUser();
+        ImportResult result = importService.importCsv(copy, new StringReader(exported));
+        
+        assertEquals(0, result.getRowsRejected(), result.getErrors().toString());
+        assertEquals(7, result.getTransactionsImported());
+        assertEquals(describe(transactionService.getAllTransactionsForUser(user)),
+                describe(transactionService.getAllTransactionsForUser(copy)));
+        assertEquals(balances(user), balances(copy));
+    }
+    
+    @Test
+    void exportIncludesRowsAtTheEndOfTime() throws IOException {
+        // The import accepts any date, so the export must not stop short of the latest one
+        importService.importCsv(user, new StringReader(HEADER +
+                "Alice,SEND,1.00,9999-12-31T23:59:59,last\n" +
+                "Alice,SEND,2.00,9999-12-31,first of the day\n" +
+                "Alice,SEND,3.00," + DAY + ",ordinary\n"));
+        
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.exportTransactions(user, ExportFormat.CSV, out);
+        List<String> lines = out.toString(StandardCharsets.UTF_8).lines().skip(1).toList();
+        
+        assertEquals(3, lines.size());
+        assertTrue(lines.get(0).contains(",9999-12-31T23:59:59,"), lines.get(0));
+        assertTrue(lines.get(1).contains(",9999-12-31T00:00,"), lines.get(1));
+    }
+    
+    private Long personId(String name) {
+        return personService.findByNameAndUser(name, user).orElseThrow().getId();
+    }
+    
+    private void assertBalance(String name, String expected) {
+        BigDecimal balance = personRepository.findBalanceById(personId(name));
+        assertEquals(0, new BigDecimal(expected).compareTo(balance), name + " has " + balance);
+    }
+    
+    // The rollups' balance at the end of the latest day must be the stored balance
+    private void assertRollupsMatchBalance(String name) {
+        Long id = personId(name);
+        BigDecimal stored = personRepository.findBalanceById(id);
+        BigDecimal rolledUp = rollupService.balanceAtEndOf(id, LocalDate.now());
+        assertEquals(0, stored.compareTo(rolledUp), name + ": stored " + stored + ", rollups " + rolledUp);
+    }
+    
+    private static List<String> describe(List<TransactionView> views) {
+        return views.stream()
+                .map(view -> view.getPerson().getName() + "|" + view.getType() + "|" +
+                        view.getAmount().toPlainString() + "|" + view.getDate() + "|" + view.getDescription())
+                .sorted()
+                .toList();
+    }
+    
+    private List<String> balances(User owner) {
+        return personService.getAllPeopleForUser(owner).stream()
+                .map(person -> person.getName() + "=" + person.getBalance().toPlainString())
+                .toList();
+    }
+}
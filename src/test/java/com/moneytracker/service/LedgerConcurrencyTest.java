@@ -0,0 +1,201 @@
+package com.moneytracker.service;
+
+import com.moneytracker.entity.Person;
+import com.moneytracker.entity.Transaction;
+import com.moneytracker.repository.PersonRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Concurrent sends, receives and reversals against one person must leave the stored balance equal
+// to the sum of the person's transactions, and LedgerRetry must give up with the lock failure once
+// its attempts are used.
+class LedgerConcurrencyTest extends LedgerFixture {
+    
+    private static final int THREADS = 8;
+    private static final int OPERATIONS_PER_THREAD = 50;
+    
+    @Autowired
+    private LedgerTotalsService ledgerTotalsService;
+    
+    @Autowired
+    private PersonRepository personRepository;
+    
+    @Autowired
+    private LedgerRetry ledgerRetry;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Value("${ledger.retry.max-attempts}")
+    private int maxAttempts;
+    
+    @Test
+    void concurrentWritesKeepStoredBalanceEqualToRecalculated() throws Exception {
+        Queue<Transaction> reversible = new ConcurrentLinkedQueue<>();
+        LongAdder expectedCents = new LongAdder();
+        AtomicInteger gaveUp = new AtomicInteger();
+        
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> workers = new ArrayList<>();
+        try {
+            for (int t = 0; t < THREADS; t++) {
+                workers.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                        try {
+                            runRandomOperation(reversible, expectedCents);
+                        } catch (ConcurrencyFailureException e) {
+                            // Retries used up: the write rolled back as a whole, nothing to account for
+                            gaveUp.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> worker : workers) {
+                // Any other failure of a worker fails the test here
+                worker.get(2, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        
+        BigDecimal stored = personRepository.findBalanceById(alice.getId());
+        BigDecimal recalculated = recalculatedBalance(alice.getId());
+        assertEquals(0, stored.compareTo(recalculated), "stored " + stored + ", recalculated " + recalculated);
+        assertEquals(0, stored.compareTo(BigDecimal.valueOf(expectedCents.sum(), 2)),
+                "stored " + stored + " after " + gaveUp.get() + " abandoned writes");
+    }
+    
+    @Test
+    void retryGivesUpWithLockFailureWhenLedgerStaysLocked() throws Exception {
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        
+        // Hold the user's ledger row (the first lock every write takes) until the writer has given up
+        ExecutorService holder = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> holding = holder.submit(() -> new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                ledgerTotalsService.beginChange(user.getId());
+                locked.countDown();
+                try {
+                    release.await(2, TimeUnit.MINUTES);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                status.setRollbackOnly();
+            }));
+            assertTrue(locked.await(30, TimeUnit.SECONDS));
+            
+            AtomicInteger attempts = new AtomicInteger();
+            ConcurrencyFailureException failure = assertThrows(ConcurrencyFailureException.class, () ->
+                    ledgerRetry.run(() -> {
+                        attempts.incrementAndGet();
+                        return transactionService.sendMoney("Alice", new BigDecimal("10.00"), "blocked", user);
+                    }));
+            assertEquals(maxAttempts, attempts.get(), failure.toString());
+            
+            release.countDown();
+            holding.get(30, TimeUnit.SECONDS);
+        } finally {
+            release.countDown();
+            holder.shutdownNow();
+        }
+        
+        // Every attempt rolled back
+        assertEquals(0, personRepository.findBalanceById(alice.getId()).signum());
+        assertEquals(0, recalculatedBalance(alice.getId()).signum());
+    }
+    
+    @Test
+    void retryRethrowsTheLastFailureAfterMaxAttempts() {
+        PessimisticLockingFailureException lockFailure = new PessimisticLockingFailureException("row locked");
+        AtomicInteger attempts = new AtomicInteger();
+        
+        ConcurrencyFailureException thrown = assertThrows(ConcurrencyFailureException.class, () ->
+                ledgerRetry.run(() -> {
+                    attempts.incrementAndGet();
+                    throw lockFailure;
+                }));
+        
+        assertSame(lockFailure, thrown);
+        assertEquals(maxAttempts, attempts.get());
+    }
+    
+    @Test
+    void retryDoesNotRepeatOtherFailures() {
+        AtomicInteger attempts = new AtomicInteger();
+        
+        RuntimeException thrown = assertThrows(RuntimeException.class, () ->
+                ledgerRetry.run(() -> {
+                    attempts.incrementAndGet();
+                    return transactionService.sendMoney("Nobody", new BigDecimal("1.00"), null, user);
+                }));
+        
+        assertEquals("Person not found", thrown.getMessage());
+        assertEquals(1, attempts.get());
+    }
+    
+    // A send, a receive, or a reversal of an earlier transaction, each through LedgerRetry as the
+    // controllers run them; the expected balance moves only once the write has committed
+    private void runRandomOperation(Queue<Transaction> reversible, LongAdder expectedCents) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int choice = random.nextInt(10);
+        if (choice >= 8) {
+            Transaction reversed = reversible.poll();
+            if (reversed != null) {
+                ledgerRetry.run(() -> transactionService.reverseTransaction(reversed.getId(), user));
+                expectedCents.add(-cents(reversed.getType().balanceDelta(reversed.getAmount())));
+                return;
+            }
+        }
+        BigDecimal amount = BigDecimal.valueOf(random.nextInt(1, 10_000), 2);
+        Transaction transaction = choice % 2 == 0
+                ? ledgerRetry.run(() -> transactionService.sendMoney("Alice", amount, "stress", user))
+                : ledgerRetry.run(() -> transactionService.receiveMoney("Alice", amount, "stress", user));
+        expectedCents.add(cents(transaction.getType().balanceDelta(amount)));
+        reversible.add(transaction);
+    }
+    
+    // The balance the person's transactions add up to, through the entity's own recalculation
+    // (read-only, so the recalculated value is never flushed)
+    private BigDecimal recalculatedBalance(Long personId) {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        return readOnly.execute(status -> {
+            Person loaded = personRepository.findById(personId).orElseThrow();
+            loaded.recalculateBalance();
+            return loaded.getBalance();
+        });
+    }
+    
+    private static long cents(BigDecimal amount) {
+        return amount.movePointRight(2).longValueExact();
+    }
+}
@@ -0,0 +1,43 @@
+package com.moneytracker.service;
+
+import com.moneytracker.entity.Person;
+import com.moneytracker.entity.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.UUID;
+
+// Fixture shared by the ledger tests: each test gets a newly registered user with one person,
+// Alice, and no transactions, so tests share the in-memory database without seeing each
+// other's rows.
+@SpringBootTest
+@ActiveProfiles("test")
+public abstract class LedgerFixture {
+    
+    @Autowired
+    protected UserService userService;
+    
+    @Autowired
+    protected PersonService personService;
+    
+    @Autowired
+    protected TransactionService transactionService;
+    
+    protected User user;
+    protected Person alice;
+    
+    @BeforeEach
+    protected void registerUserWithAlice() {
+        user = newUser();
+        alice = personService.addPerson("Alice", user);
+    }
+    
+    // Another user, with no people, for tests that need a second or an untouched ledger.
+    // Usernames are at most 30 characters, so only part of the UUID is used.
+    protected User newUser() {
+        return userService.registerUser("test-" + UUID.randomUUID().toString().replace("-", "").substring(0, 20),
+                null, "password");
+    }
+}
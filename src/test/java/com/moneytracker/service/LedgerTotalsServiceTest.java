@@ -0,0 +1,60 @@
+package com.moneytracker.service;
+
+import com.moneytracker.entity.LedgerTotals;
+import com.moneytracker.entity.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// The totals row is created at registration; reads and writes never insert it themselves, and
+// only rebuild puts back a missing one.
+class LedgerTotalsServiceTest extends LedgerFixture {
+    
+    @Autowired
+    private LedgerTotalsService ledgerTotalsService;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Test
+    void registrationCreatesAnEmptyRow() {
+        // The fixture's user has already changed its ledger by adding Alice
+        User fresh = newUser();
+        LedgerTotals totals = ledgerTotalsService.getTotals(fresh.getId());
+        
+        assertEquals(0, totals.getLedgerVersion());
+        assertEquals(0, totals.getSendCount());
+        assertEquals(0, totals.getReceiveCount());
+        
+        // A second create is a no-op, not a duplicate key
+        ledgerTotalsService.createForUser(fresh.getId());
+        assertEquals(0, ledgerTotalsService.getLedgerVersion(fresh.getId()));
+    }
+    
+    @Test
+    void missingRowFailsReadsAndWritesUntilRebuilt() {
+        transactionService.sendMoney("Alice", new BigDecimal("10.00"), "lunch", user);
+        transactionService.receiveMoney("Alice", new BigDecimal("4.00"), "refund", user);
+        jdbcTemplate.update("DELETE FROM ledger_totals WHERE user_id = ?", user.getId());
+        
+        assertThrows(RuntimeException.class, () -> ledgerTotalsService.getTotals(user.getId()));
+        assertThrows(RuntimeException.class, () ->
+                transactionService.sendMoney("Alice", new BigDecimal("1.00"), "no row", user));
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM ledger_totals WHERE user_id = ?", Integer.class, user.getId()));
+        
+        LedgerTotals rebuilt = ledgerTotalsService.rebuild(user.getId());
+        assertEquals(1, rebuilt.getSendCount());
+        assertEquals(1, rebuilt.getReceiveCount());
+        assertEquals(0, new BigDecimal("6.00").compareTo(rebuilt.getOwedToUser()));
+        assertEquals(1, rebuilt.getLedgerVersion());
+        
+        transactionService.sendMoney("Alice", new BigDecimal("1.00"), "after rebuild", user);
+        assertEquals(2, ledgerTotalsService.getTotals(user.getId()).getSendCount());
+    }
+}
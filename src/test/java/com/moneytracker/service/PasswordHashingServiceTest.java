@@ -0,0 +1,54 @@
+package com.moneytracker.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PasswordHashingServiceTest {
+    
+    private static final int STRENGTH = 5;
+    
+    private final PasswordHashingService service = new PasswordHashingService(
+            new BCryptPasswordEncoder(STRENGTH), new SimpleMeterRegistry(), STRENGTH, 1, 4, 5000);
+    
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+    
+    @Test
+    void hashAtTheConfiguredStrengthIsKept() {
+        assertFalse(service.needsRehash(service.encode("secret")));
+    }
+    
+    @Test
+    void lowerStrengthIsRehashed() {
+        assertTrue(service.needsRehash(new BCryptPasswordEncoder(4).encode("secret")));
+    }
+    
+    @Test
+    void higherStrengthIsRehashed() {
+        // Lowering security.bcrypt.strength must reach existing users as well
+        assertTrue(service.needsRehash(new BCryptPasswordEncoder(6).encode("secret")));
+    }
+    
+    @Test
+    void everyBcryptVersionPrefixIsRead() {
+        String hash = service.encode("secret");
+        String cost = hash.substring(3);
+        
+        assertFalse(service.needsRehash("$2a" + cost));
+        assertFalse(service.needsRehash("$2b" + cost));
+        assertFalse(service.needsRehash("$2y" + cost));
+    }
+    
+    @Test
+    void otherFormatsAreRehashed() {
+        assertTrue(service.needsRehash("plain-text"));
+        assertTrue(service.needsRehash(""));
+    }
+}
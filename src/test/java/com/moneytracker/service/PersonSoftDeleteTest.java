@@ -0,0 +1,124 @@
+package com.moneytracker.service;
+
+import com.moneytracker.config.DeletedPeoplePurger;
+import com.moneytracker.dto.PersonView;
+import com.moneytracker.dto.TransactionView;
+import com.moneytracker.entity.LedgerTotals;
+import com.moneytracker.entity.Transaction;
+import com.moneytracker.repository.PersonRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Deleting a person with people.delete.soft=true: the person and its history drop out of every
+// read at once, and the purge removes the rows afterwards in batches. The flag is switched on
+// the service itself rather than through a property, so the test shares the application context
+// (and its cache manager) with the other tests.
+class PersonSoftDeleteTest extends LedgerFixture {
+    
+    private static final int PURGE_BATCH = 2;
+    
+    @Autowired
+    private PersonRepository personRepository;
+    
+    @Autowired
+    private LedgerTotalsService ledgerTotalsService;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private ApplicationContext applicationContext;
+    
+    @BeforeEach
+    void enableSoftDelete() {
+        ReflectionTestUtils.setField(AopTestUtils.getUltimateTargetObject(personService), "softDelete", true);
+    }
+    
+    @AfterEach
+    void restoreHardDelete() {
+        ReflectionTestUtils.setField(AopTestUtils.getUltimateTargetObject(personService), "softDelete", false);
+    }
+    
+    @Test
+    void deletedPersonDropsOutOfEveryRead() {
+        Transaction transaction = transactionService.sendMoney("Alice", new BigDecimal("10.00"), "lunch", user);
+        personService.addPerson("Bob", user);
+        transactionService.receiveMoney("Bob", new BigDecimal("3.00"), "refund", user);
+        
+        personService.deletePerson("Alice", user);
+        
+        assertEquals(List.of("Bob"), personService.getAllPeopleForUser(user).stream().map(PersonView::getName).toList());
+        assertFalse(personService.personExists("Alice", user));
+        assertEquals(1, transactionService.getAllTransactionsForUser(user).size());
+        assertEquals(1, transactionService.getTransactionPage(user, null, null).getItems().size());
+        LedgerTotals totals = ledgerTotalsService.getTotals(user.getId());
+        assertEquals(0, totals.getOwedToUser().signum());
+        assertEquals(0, new BigDecimal("3.00").compareTo(totals.getUserOwes()));
+        // The rows stay until the purge, but the history can no longer be changed
+        assertEquals(1, countTransactions(alice.getId()));
+        RuntimeException failure = assertThrows(RuntimeException.class, () ->
+                transactionService.reverseTransaction(transaction.getId(), user));
+        assertEquals("Transaction not found", failure.getMessage());
+        assertEquals(1, countTransactions(alice.getId()));
+    }
+    
+    @Test
+    void nameCanBeReusedBeforeThePurge() {
+        transactionService.sendMoney("Alice", new BigDecimal("10.00"), "old Alice", user);
+        personService.deletePerson("Alice", user);
+        
+        personService.addPerson("Alice", user);
+        transactionService.sendMoney("Alice", new BigDecimal("1.00"), "new Alice", user);
+        
+        assertEquals(List.of("new Alice"), transactionService.getAllTransactionsForUser(user).stream()
+                .map(TransactionView::getDescription).toList());
+        assertEquals(0, BigDecimal.ONE.compareTo(personService.getAllPeopleForUser(user).get(0).getBalance()));
+    }
+    
+    @Test
+    void purgeRemovesTheHistoryInBatchesAndThenThePerson() {
+        for (int i = 0; i < 5; i++) {
+            transactionService.sendMoney("Alice", new BigDecimal("1.00"), "history " + i, user);
+        }
+        personService.deletePerson("Alice", user);
+        assertTrue(personRepository.findDeletedIds().contains(alice.getId()));
+        
+        // 5 rows in batches of 2: two full batches, then the last row and the person
+        int calls = 0;
+        boolean gone = false;
+        while (!gone) {
+            gone = personService.purgeDeleted(alice.getId(), PURGE_BATCH);
+            calls++;
+            assertEquals(Math.max(0, 5 - calls * PURGE_BATCH), countTransactions(alice.getId()));
+        }
+        
+        assertEquals(3, calls);
+        assertTrue(personRepository.findById(alice.getId()).isEmpty());
+        assertFalse(personRepository.findDeletedIds().contains(alice.getId()));
+    }
+    
+    @Test
+    void purgerIsOnlyScheduledInSoftMode() {
+        // The test context runs with the default people.delete.soft=false
+        assertEquals(0, applicationContext.getBeanNamesForType(DeletedPeoplePurger.class).length);
+    }
+    
+    private int countTransactions(Long personId) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM transactions WHERE person_id = ?",
+                Integer.class, personId);
+    }
+}
@@ -0,0 +1,146 @@
+package com.moneytracker.service;
+
+import com.moneytracker.dto.PersonView;
+import com.moneytracker.dto.SyncResponse;
+import com.moneytracker.dto.TransactionView;
+import com.moneytracker.entity.LedgerTombstone;
+import com.moneytracker.entity.Person;
+import com.moneytracker.entity.TombstoneType;
+import com.moneytracker.entity.Transaction;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Delta sync: changes and tombstones after the client's version, full answers for tokens the
+// server did not issue, and a version bound that never runs ahead of an uncommitted write
+class SyncServiceTest extends LedgerFixture {
+    
+    @Autowired
+    private SyncService syncService;
+    
+    @Autowired
+    private LedgerTotalsService ledgerTotalsService;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Test
+    void firstSyncSendsEverything() {
+        transactionService.sendMoney("Alice", new BigDecimal("10.00"), "lunch", user);
+        transactionService.receiveMoney("Alice", new BigDecimal("4.00"), "refund", user);
+        
+        SyncResponse changes = syncService.getChanges(user, null);
+        
+        assertTrue(changes.isFull());
+        assertEquals(ledgerTotalsService.getLedgerVersion(user.getId()), changes.getVersion());
+        assertEquals(List.of("Alice"), names(changes));
+        assertEquals(2, changes.getTransactions().size());
+        assertTrue(changes.getDeleted().isEmpty());
+    }
+    
+    @Test
+    void laterSyncSendsOnlyChangesAndRemovalsAfterTheToken() {
+        transactionService.sendMoney("Alice", new BigDecimal("10.00"), "kept", user);
+        Transaction reversed = transactionService.sendMoney("Alice", new BigDecimal("5.00"), "reversed", user);
+        Person bob = personService.addPerson("Bob", user);
+        transactionService.sendMoney("Bob", new BigDecimal("1.00"), "gone with Bob", user);
+        long since = syncService.getChanges(user, null).getVersion();
+        
+        transactionService.reverseTransaction(reversed.getId(), user);
+        personService.deletePerson("Bob", user);
+        Transaction added = transactionService.receiveMoney("Alice", new BigDecimal("2.00"), "new", user);
+        SyncResponse changes = syncService.getChanges(user, since);
+        
+        assertFalse(changes.isFull());
+        assertEquals(List.of(added.getId()), changes.getTransactions().stream().map(TransactionView::getId).toList());
+        assertEquals(List.of("Alice"), names(changes));
+        // Tombstones in version order, each within (since, version]
+        List<LedgerTombstone> deleted = changes.getDeleted();
+        assertEquals(2, deleted.size());
+        assertEquals(TombstoneType.TRANSACTION, deleted.get(0).getType());
+        assertEquals(reversed.getId(), deleted.get(0).getEntityId());
+        assertEquals(TombstoneType.PERSON, deleted.get(1).getType());
+        assertEquals(bob.getId(), deleted.get(1).getEntityId());
+        for (LedgerTombstone tombstone : deleted) {
+            assertTrue(tombstone.getChangeVersion() > since && tombstone.getChangeVersion() <= changes.getVersion());
+        }
+        
+        // Nothing is sent twice
+        assertEmpty(syncService.getChanges(user, changes.getVersion()));
+    }
+    
+    @Test
+    void tokenTheServerNeverIssuedGetsAFullSync() {
+        transactionService.sendMoney("Alice", new BigDecimal("10.00"), "lunch", user);
+        long version = ledgerTotalsService.getLedgerVersion(user.getId());
+        
+        SyncResponse changes = syncService.getChanges(user, version + 100);
+        
+        assertTrue(changes.isFull());
+        assertEquals(version, changes.getVersion());
+        assertEquals(1, changes.getTransactions().size());
+        assertTrue(changes.getDeleted().isEmpty());
+    }
+    
+    @Test
+    void uncommittedWriteIsLeftForTheNextSync() throws Exception {
+        long since = syncService.getChanges(user, null).getVersion();
+        CountDownLatch written = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        
+        // A write that has taken the next version but not committed yet
+        ExecutorService writer = Executors.newSingleThreadExecutor();
+        try {
+            Future<Transaction> writing = writer.submit(() -> new TransactionTemplate(transactionManager).execute(status -> {
+                Transaction transaction = transactionService.sendMoney("Alice", new BigDecimal("10.00"), "slow", user);
+                written.countDown();
+                try {
+                    release.await(2, TimeUnit.MINUTES);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return transaction;
+            }));
+            assertTrue(written.await(30, TimeUnit.SECONDS));
+            
+            // The token does not move past the open write, so its rows cannot be skipped
+            SyncResponse during = syncService.getChanges(user, since);
+            assertEquals(since, during.getVersion());
+            assertEmpty(during);
+            
+            release.countDown();
+            Transaction transaction = writing.get(30, TimeUnit.SECONDS);
+            
+            SyncResponse after = syncService.getChanges(user, during.getVersion());
+            assertEquals(since + 1, after.getVersion());
+            assertEquals(List.of(transaction.getId()), after.getTransactions().stream().map(TransactionView::getId).toList());
+        } finally {
+            release.countDown();
+            writer.shutdownNow();
+        }
+    }
+    
+    private static List<String> names(SyncResponse changes) {
+        return changes.getPeople().stream().map(PersonView::getName).toList();
+    }
+    
+    private static void assertEmpty(SyncResponse changes) {
+        assertFalse(changes.isFull());
+        assertTrue(changes.getPeople().isEmpty());
+        assertTrue(changes.getTransactions().isEmpty());
+        assertTrue(changes.getDeleted().isEmpty());
+    }
+}
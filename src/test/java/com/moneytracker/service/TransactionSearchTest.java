@@ -0,0 +1,122 @@
+package com.moneytracker.service;
+
+import com.moneytracker.dto.SearchOrder;
+import com.moneytracker.dto.TextMatch;
+import com.moneytracker.dto.TransactionPage;
+import com.moneytracker.dto.TransactionView;
+import com.moneytracker.entity.TransactionType;
+import com.moneytracker.util.RequestStatistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import static com.moneytracker.util.SqlAssertions.assertNoRepeatsAbove;
+import static com.moneytracker.util.SqlAssertions.assertStatementsAtMost;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Structured and description search: paging through every match in order, and a fixed number of
+// statements however many trigrams the terms have
+class TransactionSearchTest extends LedgerFixture {
+    
+    @BeforeEach
+    void addHistory() {
+        for (int i = 0; i < 7; i++) {
+            transactionService.sendMoney("Alice", new BigDecimal("1.00"), "Dinner at the harbour " + i, user);
+            transactionService.sendMoney("Alice", new BigDecimal("2.00"), "Train ticket " + i, user);
+        }
+    }
+    
+    @Test
+    void structuredSearchPagesThroughEveryMatchNewestFirst() {
+        // The (user, type) index, with the amount bound checked on the rows read
+        List<TransactionView> found = searchAll(cursor -> transactionService.searchTransactions(user, null,
+                TransactionType.SEND, new BigDecimal("1.50"), null, null, null, SearchOrder.NEWEST, cursor, 3));
+        
+        assertEquals(7, found.size());
+        assertTrue(found.stream().allMatch(view -> view.getDescription().startsWith("Train")));
+        for (int i = 1; i < found.size(); i++) {
+            assertTrue(found.get(i - 1).getId() > found.get(i).getId());
+        }
+    }
+    
+    @Test
+    void structuredSearchPagesThroughAPersonOldestFirst() {
+        personService.addPerson("Bob", user);
+        transactionService.receiveMoney("Bob", new BigDecimal("3.00"), "Bob's refund", user);
+        LocalDate from = LocalDate.now().minusDays(1);
+        LocalDate to = LocalDate.now().plusDays(1);
+        
+        // The person's index; Bob's row is not Alice's
+        List<TransactionView> found = searchAll(cursor -> transactionService.searchTransactions(user, "Alice",
+                null, null, null, from, to, SearchOrder.OLDEST, cursor, 4));
+        
+        assertEquals(14, found.size());
+        assertEquals(14, found.stream().map(TransactionView::getId).distinct().count());
+        assertTrue(found.stream().allMatch(view -> view.getPerson().getName().equals("Alice")));
+        for (int i = 1; i < found.size(); i++) {
+            assertTrue(found.get(i - 1).getId() < found.get(i).getId());
+        }
+        assertTrue(transactionService.searchTransactions(user, "Bob", TransactionType.SEND, null, null,
+                null, null, SearchOrder.NEWEST, null, 10).getItems().isEmpty());
+    }
+    
+    @Test
+    void textSearchPagesThroughEveryMatchNewestFirst() {
+        List<TransactionView> found = searchAll(cursor ->
+                transactionService.searchDescriptions(user, "harbour dinner", TextMatch.CONTAINS, cursor, 3));
+        
+        assertEquals(7, found.size());
+        assertEquals(7, found.stream().map(TransactionView::getId).distinct().count());
+        assertTrue(found.stream().allMatch(view -> view.getDescription().startsWith("Dinner")));
+        for (int i = 1; i < found.size(); i++) {
+            assertTrue(found.get(i - 1).getId() > found.get(i).getId());
+        }
+    }
+    
+    @Test
+    void prefixMatchOnlyMatchesWordStarts() {
+        assertEquals(7, transactionService.searchDescriptions(user, "tick", TextMatch.PREFIX, null, 20)
+                .getItems().size());
+        assertTrue(transactionService.searchDescriptions(user, "icket", TextMatch.PREFIX, null, 20)
+                .getItems().isEmpty());
+    }
+    
+    @Test
+    void unknownTrigramEndsTheSearchEarly() {
+        TransactionPage page = transactionService.searchDescriptions(user, "harbour zzz", TextMatch.CONTAINS, null, 10);
+        
+        assertTrue(page.getItems().isEmpty());
+        assertNull(page.getNextCursor());
+    }
+    
+    @Test
+    void trigramsAreCountedWithOneStatement() {
+        // Three words, 10 trigrams: counting each one separately would repeat a statement 10 times
+        RequestStatistics.Measured<TransactionPage> search = RequestStatistics.measureResult(() ->
+                transactionService.searchDescriptions(user, "dinner the harbour", TextMatch.CONTAINS, null, 5));
+        
+        assertEquals(5, search.result().getItems().size());
+        assertNoRepeatsAbove(search.statistics(), 1);
+        // Trigram counts, candidate keys, views
+        assertStatementsAtMost(search.statistics(), 3);
+    }
+    
+    // Every item of a search, following nextCursor from the first page to the last
+    private static List<TransactionView> searchAll(Function<String, TransactionPage> search) {
+        List<TransactionView> found = new ArrayList<>();
+        String cursor = null;
+        do {
+            TransactionPage page = search.apply(cursor);
+            found.addAll(page.getItems());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        return found;
+    }
+}
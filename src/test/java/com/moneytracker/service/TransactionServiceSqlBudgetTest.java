@@ -0,0 +1,153 @@
+package com.moneytracker.service;
+
+import com.moneytracker.dto.TransactionPage;
+import com.moneytracker.entity.Transaction;
+import com.moneytracker.repository.PersonRepository;
+import com.moneytracker.util.RequestStatistics;
+import com.moneytracker.util.SqlBudget;
+import com.moneytracker.util.SqlBudgetExceededException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static com.moneytracker.util.SqlAssertions.assertNoRepeatsAbove;
+import static com.moneytracker.util.SqlAssertions.assertStatementsAtMost;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// SQL budgets of the transaction write and paging paths. A write is a fixed handful of statements
+// (ledger version, insert or delete, balance update, totals, daily and monthly rollups, search
+// index) whatever the size of the person's history: nothing on the write path may load the User or
+// Person transaction collections. A page is its keys plus one query for the views.
+class TransactionServiceSqlBudgetTest extends LedgerFixture {
+    
+    private static final int WRITE_STATEMENTS = 12;
+    // The rollup MERGE runs once for the daily and once for the monthly bucket
+    private static final int WRITE_REPEATS = 2;
+    private static final int PAGE_STATEMENTS = 2;
+    private static final int LARGE_HISTORY = 500;
+    
+    @Autowired
+    private LedgerTotalsService ledgerTotalsService;
+    
+    @Autowired
+    private PersonRepository personRepository;
+    
+    @Test
+    void sendStaysWithinBudgetWhateverTheHistory() {
+        assertSameCostWithLargeHistory(description ->
+                transactionService.sendMoney("Alice", new BigDecimal("5.00"), description, user));
+    }
+    
+    @Test
+    void receiveStaysWithinBudgetWhateverTheHistory() {
+        assertSameCostWithLargeHistory(description ->
+                transactionService.receiveMoney("Alice", new BigDecimal("5.00"), description, user));
+    }
+    
+    @Test
+    void reverseTransactionStaysWithinBudget() {
+        Transaction transaction = transactionService.sendMoney("Alice", new BigDecimal("10.00"), "lunch", user);
+        
+        RequestStatistics statistics = RequestStatistics.measure(() ->
+                transactionService.reverseTransaction(transaction.getId(), user));
+        
+        assertStatementsAtMost(statistics, WRITE_STATEMENTS);
+        assertNoRepeatsAbove(statistics, WRITE_REPEATS);
+        assertEquals(0, statistics.getCollectionFetches());
+    }
+    
+    @Test
+    void transactionPagesStayWithinBudget() {
+        for (int i = 0; i < 30; i++) {
+            transactionService.sendMoney("Alice", new BigDecimal("1.00"), "history " + i, user);
+        }
+        
+        RequestStatistics.Measured<TransactionPage> first = RequestStatistics.measureResult(() ->
+                transactionService.getTransactionPage(user, null, 10));
+        assertEquals(10, first.result().getItems().size());
+        assertNotNull(first.result().getNextCursor());
+        assertStatementsAtMost(first.statistics(), PAGE_STATEMENTS);
+        assertEquals(0, first.statistics().getEntityLoads());
+        
+        RequestStatistics.Measured<TransactionPage> second = RequestStatistics.measureResult(() ->
+                transactionService.getTransactionPage(user, first.result().getNextCursor(), 10));
+        assertEquals(10, second.result().getItems().size());
+        assertStatementsAtMost(second.statistics(), PAGE_STATEMENTS);
+        assertEquals(0, second.statistics().getEntityLoads());
+    }
+    
+    @Test
+    void exceededBudgetInFailModeRollsTheWriteBack() {
+        long versionBefore = ledgerTotalsService.getLedgerVersion(user.getId());
+        
+        // A request budget of one statement, as the interceptor would set with sql.budget.fail=true
+        RequestStatistics statistics = RequestStatistics.begin();
+        statistics.setBudget(new SqlBudget("test", 1, 0, 0, true));
+        RuntimeException failure;
+        try {
+            failure = assertThrows(RuntimeException.class, () ->
+                    transactionService.sendMoney("Alice", new BigDecimal("10.00"), "over budget", user));
+        } finally {
+            RequestStatistics.end();
+        }
+        assertTrue(causedByBudget(failure), failure.toString());
+        
+        // Nothing of the write survived: no row, no balance change, no new ledger version
+        assertTrue(transactionService.getTransactionPage(user, null, null).getItems().isEmpty());
+        assertEquals(0, personRepository.findBalanceById(alice.getId()).signum());
+        assertEquals(versionBefore, ledgerTotalsService.getLedgerVersion(user.getId()));
+    }
+    
+    // Run the write against a short and a long history: both runs within budget, and the same
+    // statements and entity loads apart from sequence fetches
+    private void assertSameCostWithLargeHistory(Consumer<String> write) {
+        RequestStatistics small = measureWrite(write);
+        
+        for (int i = 0; i < LARGE_HISTORY; i++) {
+            write.accept("history " + i);
+        }
+        RequestStatistics large = measureWrite(write);
+        
+        for (RequestStatistics statistics : List.of(small, large)) {
+            assertStatementsAtMost(statistics, WRITE_STATEMENTS);
+            assertNoRepeatsAbove(statistics, WRITE_REPEATS);
+            assertEquals(0, statistics.getCollectionFetches());
+        }
+        assertEquals(statementsWithoutSequence(small), statementsWithoutSequence(large),
+                "statements: " + small.getStatementCounts() + " vs " + large.getStatementCounts());
+        assertEquals(small.getEntityLoads(), large.getEntityLoads());
+    }
+    
+    // One unmeasured call first, so both measurements start from the same cache state: right
+    // after a write to the same person
+    private static RequestStatistics measureWrite(Consumer<String> write) {
+        write.accept("warm-up");
+        return RequestStatistics.measure(() -> write.accept("measured"));
+    }
+    
+    // Ids come from pooled sequences, so one insert in 50 also fetches the next block; which call
+    // that lands on depends on how many ids were used before, not on the history
+    private static long statementsWithoutSequence(RequestStatistics statistics) {
+        return statistics.getStatementCounts().entrySet().stream()
+                .filter(entry -> !entry.getKey().toLowerCase().contains("next value for"))
+                .mapToLong(Map.Entry::getValue)
+                .sum();
+    }
+    
+    // The exception may reach the caller wrapped, when the limit is crossed while committing
+    private static boolean causedByBudget(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SqlBudgetExceededException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,60 @@
+package com.moneytracker.service;
+
+import com.moneytracker.dto.StatementLine;
+import com.moneytracker.dto.StatementPage;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+// Statement pages: running balances across pages, and the first page anchored on the balance
+// stored in the database, not on the person as the second-level cache holds it.
+class TransactionServiceStatementTest extends LedgerFixture {
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Test
+    void runningBalancesContinueAcrossPages() {
+        for (int i = 1; i <= 7; i++) {
+            transactionService.sendMoney("Alice", new BigDecimal(i), "send " + i, user);
+        }
+        
+        List<StatementLine> lines = new ArrayList<>();
+        StatementPage page = transactionService.getStatement(user, "Alice", null, null, null, 3);
+        lines.addAll(page.getItems());
+        while (page.getNextCursor() != null) {
+            page = transactionService.getStatement(user, "Alice", null, null, page.getNextCursor(), 3);
+            lines.addAll(page.getItems());
+        }
+        
+        // 1 + 2 + ... + 7 = 28, newest first: each row is the balance after it
+        assertEquals(7, lines.size());
+        BigDecimal expected = new BigDecimal("28");
+        for (StatementLine line : lines) {
+            assertEquals(0, expected.compareTo(line.getBalance()), line.getDescription());
+            expected = expected.subtract(line.getAmount());
+        }
+        assertEquals(0, expected.signum());
+    }
+    
+    @Test
+    void firstPageStartsFromTheStoredBalance() {
+        transactionService.sendMoney("Alice", new BigDecimal("10.00"), "lunch", user);
+        // Cache the person, then move the stored balance behind Hibernate's back
+        assertNotNull(personService.findByNameAndUser("Alice", user).orElseThrow().getBalance());
+        jdbcTemplate.update("UPDATE people SET balance = balance + 5 WHERE id = ?", alice.getId());
+        
+        StatementPage page = transactionService.getStatement(user, "Alice", null, null, null, 10);
+        
+        assertNull(page.getNextCursor());
+        assertEquals(0, new BigDecimal("15.00").compareTo(page.getItems().get(0).getBalance()));
+    }
+}
@@ -0,0 +1,101 @@
+package com.moneytracker.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CsvReaderTest {
+    
+    @Test
+    void readsPlainRecordsUntilEndOfInput() throws IOException {
+        CsvReader csv = new CsvReader(new StringReader("person,amount\r\nAlice,10\r\n"));
+        
+        assertEquals(List.of("person", "amount"), csv.readRecord());
+        assertEquals(List.of("Alice", "10"), csv.readRecord());
+        assertNull(csv.readRecord());
+    }
+    
+    @Test
+    void emptyInputHasNoRecords() throws IOException {
+        assertNull(new CsvReader(new StringReader("")).readRecord());
+    }
+    
+    @Test
+    void lastRecordNeedNotEndWithLineBreak() throws IOException {
+        CsvReader csv = new CsvReader(new StringReader("a,b\nc,d"));
+        
+        assertEquals(List.of("a", "b"), csv.readRecord());
+        assertEquals(List.of("c", "d"), csv.readRecord());
+        assertNull(csv.readRecord());
+    }
+    
+    @Test
+    void keepsEmptyFields() throws IOException {
+        CsvReader csv = new CsvReader(new StringReader(",x,\n\n"));
+        
+        assertEquals(List.of("", "x", ""), csv.readRecord());
+        assertEquals(List.of(""), csv.readRecord());
+    }
+    
+    @Test
+    void quotedFieldsMayHoldSeparatorsQuotesAndLineBreaks() throws IOException {
+        CsvReader csv = new CsvReader(new StringReader(
+                "\"Smith, John\",\"say \"\"hi\"\"\",\"two\r\nlines\",\"\"\r\nnext,row\r\n"));
+        
+        assertEquals(List.of("Smith, John", "say \"hi\"", "two\r\nlines", ""), csv.readRecord());
+        assertEquals(1, csv.getRecordLine());
+        assertEquals(List.of("next", "row"), csv.readRecord());
+        assertEquals(3, csv.getRecordLine());
+    }
+    
+    @Test
+    void quoteInsideAnUnquotedFieldIsLiteral() throws IOException {
+        CsvReader csv = new CsvReader(new StringReader("5\" pipe,x\n"));
+        
+        assertEquals(List.of("5\" pipe", "x"), csv.readRecord());
+    }
+    
+    @Test
+    void acceptsLfCrLfAndBareCrLineEnds() throws IOException {
+        CsvReader csv = new CsvReader(new StringReader("a\nb\r\nc\rd"));
+        
+        assertEquals(List.of("a"), csv.readRecord());
+        assertEquals(List.of("b"), csv.readRecord());
+        assertEquals(List.of("c"), csv.readRecord());
+        assertEquals(List.of("d"), csv.readRecord());
+        assertEquals(4, csv.getRecordLine());
+        assertNull(csv.readRecord());
+    }
+    
+    @Test
+    void skipsLeadingByteOrderMark() throws IOException {
+        CsvReader csv = new CsvReader(new StringReader("\uFEFFperson\nAlice\n"));
+        
+        assertEquals(List.of("person"), csv.readRecord());
+        assertEquals(List.of("Alice"), csv.readRecord());
+    }
+    
+    @Test
+    void unclosedQuoteFailsWithTheRecordLine() throws IOException {
+        CsvReader csv = new CsvReader(new StringReader("ok\n\"never closed,\nmore\n"));
+        csv.readRecord();
+        
+        RuntimeException e = assertThrows(RuntimeException.class, csv::readRecord);
+        assertTrue(e.getMessage().contains("line 2"), e.getMessage());
+    }
+    
+    @Test
+    void overlongRecordFails() {
+        CsvReader csv = new CsvReader(new StringReader("x".repeat(64 * 1024 + 1)));
+        
+        RuntimeException e = assertThrows(RuntimeException.class, csv::readRecord);
+        assertTrue(e.getMessage().contains("too long"), e.getMessage());
+    }
+}
@@ -0,0 +1,26 @@
+package com.moneytracker.util;
+
+import java.util.List;
+
+// Assertions on the database work counted by RequestStatistics.measure
+public final class SqlAssertions {
+    
+    private SqlAssertions() {
+    }
+    
+    // Fail with the statements that ran when there were more than max
+    public static void assertStatementsAtMost(RequestStatistics statistics, int max) {
+        if (statistics.getStatements() > max) {
+            throw new AssertionError("Expected at most " + max + " SQL statements but " +
+                    statistics.getStatements() + " ran: " + statistics.repeatedStatements(0));
+        }
+    }
+    
+    // Fail when any one SQL string ran more than max times
+    public static void assertNoRepeatsAbove(RequestStatistics statistics, int max) {
+        List<String> repeated = statistics.repeatedStatements(max);
+        if (!repeated.isEmpty()) {
+            throw new AssertionError("SQL statements repeated more than " + max + " times: " + repeated);
+        }
+    }
+}